@@ -0,0 +1,56 @@
+package chess.model;
+
+import chess.model.chessai.BitboardEvaluator;
+import chess.model.chessai.Evaluator;
+import chess.model.chessai.PositionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the static evaluation of every position of the suite, both
+ * the full evaluation and the score the search calls at every node, for
+ * each evaluator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EvaluationBenchmark {
+
+    @Param({"position", "bitboard"})
+    public String evaluatorName;
+
+    private GameModel[] games;
+    private Evaluator evaluator;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkPositions.createGames();
+        evaluator = switch (evaluatorName) {
+            case "bitboard" -> new BitboardEvaluator(games[0]);
+            default -> new PositionEvaluator(games[0]);
+        };
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        for (GameModel game : games) {
+            blackhole.consume(evaluator.evaluate(game));
+        }
+    }
+
+    @Benchmark
+    public void evaluateScore(Blackhole blackhole) {
+        for (GameModel game : games) {
+            blackhole.consume(evaluator.evaluateScore(game));
+        }
+    }
+}
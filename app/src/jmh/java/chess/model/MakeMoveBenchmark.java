@@ -0,0 +1,68 @@
+package chess.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static chess.model.moves.Move.*;
+
+/**
+ * Measures making and undoing every legal move of every position of the
+ * suite, and the zobrist updates those moves make on their own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MakeMoveBenchmark {
+
+    private GameModel[] games;
+    private int[][] moves;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkPositions.createGames();
+        moves = new int[games.length][];
+        for (int gameIdx = 0; gameIdx < games.length; gameIdx++) {
+            MoveList legalMoves = games[gameIdx].getLegalMoves();
+            moves[gameIdx] = new int[legalMoves.size()];
+            for (int moveIdx = 0; moveIdx < legalMoves.size(); moveIdx++) {
+                moves[gameIdx][moveIdx] = legalMoves.get(moveIdx);
+            }
+        }
+    }
+
+    @Benchmark
+    public void makeAndUndoMove(Blackhole blackhole) {
+        for (int gameIdx = 0; gameIdx < games.length; gameIdx++) {
+            GameModel game = games[gameIdx];
+            for (int move : moves[gameIdx]) {
+                game.move(move);
+                blackhole.consume(game.getZobristHash());
+                game.undoLastMove();
+            }
+        }
+    }
+
+    @Benchmark
+    public long zobristUpdate() {
+        long hash = 0;
+        for (int[] gameMoves : moves) {
+            for (int move : gameMoves) {
+                hash = Zobrist.flipPiece(getMoving(move), getFrom(move), hash);
+                hash = Zobrist.flipPiece(isPromotion(move) ? getPromoted(move) : getMoving(move),
+                                         getTo(move), hash);
+                if (isCapture(move)) {
+                    hash = Zobrist.flipPiece(getCaptured(move), getCaptureSquare(move), hash);
+                }
+            }
+        }
+        return hash;
+    }
+}
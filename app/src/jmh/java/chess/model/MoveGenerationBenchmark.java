@@ -0,0 +1,52 @@
+package chess.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the legal moves of every position of the
+ * suite, into lists that are reused between invocations like the per
+ * ply lists of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveGenerationBenchmark {
+
+    private MoveGenerator[] generators;
+    private MoveList[] moveLists;
+
+    @Setup
+    public void setup() {
+        GameModel[] games = BenchmarkPositions.createGames();
+        generators = new MoveGenerator[games.length];
+        moveLists = new MoveList[games.length];
+        for (int idx = 0; idx < games.length; idx++) {
+            generators[idx] = new MoveGenerator(games[idx]);
+            moveLists[idx] = new MoveList(games[idx].getBoard());
+        }
+    }
+
+    @Benchmark
+    public void generateMoves(Blackhole blackhole) {
+        for (int idx = 0; idx < generators.length; idx++) {
+            moveLists[idx].clear();
+            blackhole.consume(generators[idx].generateMoves(moveLists[idx]).size());
+        }
+    }
+
+    @Benchmark
+    public void hasLegalMove(Blackhole blackhole) {
+        for (MoveGenerator generator : generators) {
+            blackhole.consume(generator.hasLegalMove());
+        }
+    }
+}
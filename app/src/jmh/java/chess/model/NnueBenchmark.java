@@ -0,0 +1,77 @@
+package chess.model;
+
+import chess.model.chessai.NnueEvaluator;
+import chess.model.chessai.NnueNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the NNUE evaluator on a random network, with and without the
+ * vector API. Every legal move of every position of the suite is made,
+ * evaluated and undone, so both the accumulator updates and the hidden
+ * layer are measured, like at the leaves of a search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NnueBenchmark {
+
+    @Param({"false", "true"})
+    public boolean useVectorApi;
+
+    @Param({"256"})
+    public int hiddenSize;
+
+    private GameModel[] games;
+    private int[][] moves;
+    private NnueEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        NnueNetwork network = new NnueNetwork(
+                hiddenSize, 255, 64, randomShorts(random, NnueNetwork.INPUT_SIZE * hiddenSize, 30),
+                randomShorts(random, hiddenSize, 100), randomShorts(random, hiddenSize, 60), 0);
+
+        games = BenchmarkPositions.createGames();
+        moves = new int[games.length][];
+        for (int gameIdx = 0; gameIdx < games.length; gameIdx++) {
+            MoveList legalMoves = games[gameIdx].getLegalMoves();
+            moves[gameIdx] = new int[legalMoves.size()];
+            for (int moveIdx = 0; moveIdx < legalMoves.size(); moveIdx++) {
+                moves[gameIdx][moveIdx] = legalMoves.get(moveIdx);
+            }
+        }
+        evaluator = new NnueEvaluator(games[0], network, useVectorApi);
+    }
+
+    private static short[] randomShorts(Random random, int length, int bound) {
+        short[] values = new short[length];
+        for (int idx = 0; idx < length; idx++) {
+            values[idx] = (short) (random.nextInt(2 * bound + 1) - bound);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public void makeEvaluateUndo(Blackhole blackhole) {
+        for (int gameIdx = 0; gameIdx < games.length; gameIdx++) {
+            GameModel game = games[gameIdx];
+            for (int move : moves[gameIdx]) {
+                game.move(move);
+                blackhole.consume(evaluator.evaluateScore(game));
+                game.undoLastMove();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package chess.model;
+
+import chess.model.chessai.ChessAI;
+import chess.model.chessai.PositionEvaluator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a fixed depth search of every position of the suite. Every
+ * invocation starts with an empty transposition table, so each search
+ * does the same work. The nodes searched are reported as a counter, so
+ * JMH gives the nodes per second next to the time per search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchBenchmark {
+
+    private static final int TABLE_SIZE_MB = 16;
+
+    @Param({"5"})
+    public int depth;
+
+    private GameModel[] games;
+    private ChessAI[] searchers;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        games = BenchmarkPositions.createGames();
+        searchers = new ChessAI[games.length];
+        for (int idx = 0; idx < games.length; idx++) {
+            searchers[idx] = new ChessAI(new PositionEvaluator(games[idx]), games[idx], true,
+                                         true, TABLE_SIZE_MB);
+        }
+    }
+
+    @Benchmark
+    public void search(NodeCounter nodeCounter, Blackhole blackhole) {
+        for (ChessAI searcher : searchers) {
+            searcher.setSearchListener(stats -> nodeCounter.lastNodes = stats.getTotalNodes());
+            blackhole.consume(searcher.getBestMove(depth));
+            nodeCounter.nodes += nodeCounter.lastNodes;
+        }
+    }
+
+    /**
+     * Counts the nodes searched, so JMH reports the nodes per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+
+        /**
+         * The nodes of the last finished iteration, which counts every
+         * iteration before it.
+         */
+        private long lastNodes;
+
+        public long nodes;
+    }
+}
@@ -4,6 +4,7 @@ import chess.ChessCoordinate;
 import chess.model.GameModel;
 import chess.model.chessai.ChessAI;
 import chess.model.chessai.PositionEvaluator;
+import chess.model.chessai.TimeManager;
 import chess.model.moves.Movable;
 import chess.model.pieces.Piece;
 import chess.view.ChessView;
@@ -27,9 +28,12 @@ import static chess.model.GameModel.*;
 public class ChessController extends Application {
 
     private static final boolean AI_ON = true;
+    private static final boolean PONDER_ON = true;
 
     private static final int MINIMUM_DEPTH = 1;
     private static final int SEARCH_TIME = 1_000;
+    private static final int TABLE_SIZE_MB = 64;
+    private static final int SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
 
     private GameModel gameModel;
     private ChessView view;
@@ -39,6 +43,14 @@ public class ChessController extends Application {
     private ExecutorService finishGameExecutor;
     private CompletableFuture<Void> futureAIMove;
 
+    /**
+     * The search of the position after the expected reply, while the
+     * opponent is thinking, or null if the AI is not pondering.
+     */
+    private CompletableFuture<Movable> futurePonder;
+    private TimeManager ponderTimeManager;
+    private Movable ponderMove;
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -75,7 +87,8 @@ public class ChessController extends Application {
                                      return gameModel.getLastMove();
                                  }
                              });
-        chessAI = new ChessAI(new PositionEvaluator(gameModel), gameModel, true, true);
+        chessAI = new ChessAI(new PositionEvaluator(gameModel), gameModel, true, true,
+                              TABLE_SIZE_MB, SEARCH_THREADS);
         aiExecutor = Executors.newSingleThreadExecutor();
         finishGameExecutor = Executors.newSingleThreadExecutor();
     }
@@ -99,6 +112,7 @@ public class ChessController extends Application {
     public void stop() throws Exception {
         super.stop();
 
+        stopPondering();
         aiExecutor.shutdownNow();
         finishGameExecutor.shutdownNow();
     }
@@ -134,15 +148,66 @@ public class ChessController extends Application {
             return;
         }
 
+        // On a ponder hit, the ponder search continues as the search of this move
+        if (futurePonder != null && ponderMove.equals(gameModel.getLastMove())) {
+            CompletableFuture<Movable> ponderSearch = futurePonder;
+            futurePonder = null;
+            ponderTimeManager.ponderHit();
+
+            futureAIMove = ponderSearch.thenAcceptAsync(move -> gameModel.move(
+                            move == null ? chessAI.getBestMove(MINIMUM_DEPTH, SEARCH_TIME) : move),
+                                                        aiExecutor)
+                    .thenRun(this::printAndUpdate).thenRun(this::startPondering)
+                    .exceptionally((ex) -> {
+                        ex.printStackTrace();
+                        return null;
+                    });
+            return;
+        }
+        stopPondering();
+
         // Calculate the next best move, and make that move
         futureAIMove = CompletableFuture.runAsync(
                         () -> gameModel.move(chessAI.getBestMove(MINIMUM_DEPTH, SEARCH_TIME)), aiExecutor)
-                .thenRun(this::printAndUpdate).exceptionally((ex) -> {
+                .thenRun(this::printAndUpdate).thenRun(this::startPondering)
+                .exceptionally((ex) -> {
                     ex.printStackTrace();
                     return null;
                 });
     }
 
+    /**
+     * Start searching the position after the reply the AI expects, on
+     * the AI thread, until the opponent moves.
+     */
+    private void startPondering() {
+        Movable expectedReply = chessAI.getPonderMove();
+        if (!PONDER_ON || expectedReply == null ||
+                gameModel.getGameOverStatus() != IN_PROGRESS) {
+            return;
+        }
+
+        // Copy the game now, the opponent may move while the ponder search is queued
+        GameModel position = new GameModel(gameModel);
+        TimeManager timeManager = TimeManager.forMoveTime(SEARCH_TIME);
+        timeManager.startPondering();
+        ponderMove = expectedReply;
+        ponderTimeManager = timeManager;
+        futurePonder = CompletableFuture.supplyAsync(
+                () -> chessAI.ponder(position, expectedReply, timeManager), aiExecutor);
+    }
+
+    /**
+     * Stop the ponder search, if the AI is pondering. The ponder search
+     * finishes on the AI thread before any later search starts.
+     */
+    private void stopPondering() {
+        if (futurePonder != null) {
+            ponderTimeManager.stop();
+            futurePonder = null;
+        }
+    }
+
     private void printAndUpdate() {
         Platform.runLater(() -> view.displayMove(gameModel.getLastMove()));
         if (gameModel.getGameOverStatus() != IN_PROGRESS) {
@@ -155,6 +220,7 @@ public class ChessController extends Application {
     }
 
     private void undoMove() {
+        stopPondering();
         gameModel.undoLastMove();
         view.setPosition(gameModel.getBoard().getPieceArray());
     }
@@ -187,6 +253,7 @@ public class ChessController extends Application {
 
             switch (splitCommand[0].toLowerCase()) {
                 case "clear", "c" -> {
+                    stopPondering();
                     gameModel.setPosition("8/8/8/8/8/8/8/8 w - - 0 1");
                     view.setPosition(gameModel.getBoard().getPieceArray());
                 }
@@ -197,6 +264,7 @@ public class ChessController extends Application {
 
                     String fen = String.join(" ", Arrays.copyOfRange(splitCommand, 1,
                                                                      splitCommand.length));
+                    stopPondering();
                     gameModel.setPosition(fen);
                     view.setPosition(gameModel.getBoard().getPieceArray());
                 }
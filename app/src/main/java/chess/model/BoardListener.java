@@ -0,0 +1,30 @@
+package chess.model;
+
+/**
+ * Receives every change of the pieces of a board, so state that is
+ * computed from the pieces can be kept up to date move by move instead
+ * of being computed again for every position.
+ */
+public interface BoardListener {
+
+    /**
+     * Called after every piece of the board is set from a position.
+     *
+     * @param board the board whose position was set.
+     */
+    void positionSet(BoardModel board);
+
+    /**
+     * Called after a move is made on the board.
+     *
+     * @param move the move in the int form of Move, or NO_MOVE for a pass.
+     */
+    void moveMade(int move);
+
+    /**
+     * Called after a move is undone on the board.
+     *
+     * @param move the undone move in the int form of Move, or NO_MOVE for a pass.
+     */
+    void moveUndone(int move);
+}
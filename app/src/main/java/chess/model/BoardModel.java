@@ -1,58 +1,259 @@
 package chess.model;
 
 import chess.ChessCoordinate;
-import chess.model.moves.Movable;
+import chess.model.moves.Move;
 import chess.model.pieces.Piece;
 import chess.util.BitIterator;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static chess.model.GameModel.WHITE;
 import static chess.model.pieces.Piece.*;
 
+/**
+ * The pieces on a chess board. The board is a single set of bitboards
+ * that moves change in place. Every move is pushed onto a primitive undo
+ * stack, with the change of the hash it made, and undoMove flips the
+ * same bits again. The board also keeps the packed material and square
+ * score of its pieces, see PieceSquareTable, which every move changes by
+ * its own delta like the hash, and a second hash of only its pawns and
+ * kings, which changes far less often than the full hash.
+ */
 public class BoardModel {
 
-    private final ArrayDeque<BoardState> stateHistory;
+    private static final int INITIAL_STACK_SIZE = 256;
+
+    private final long[] pieceMaps;
+    private long white;
+    private long black;
+    private long occupied;
+
+    /**
+     * The moves made on this board, in the int form of Move, and the
+     * change of the hash, pawn hash and score each of them made. A pass
+     * is stored as NO_MOVE.
+     */
+    private int[] moveStack;
+    private long[] deltaHashStack;
+    private long[] deltaPawnHashStack;
+    private int[] deltaScoreStack;
+    private int stackSize;
 
     private long hashValue = 0x0L;
+    private long pawnHashValue = 0x0L;
+    private int score;
+
+    /**
+     * The listener told of every change of the pieces, or null.
+     */
+    private BoardListener listener;
 
     public BoardModel() {
-        stateHistory = new ArrayDeque<>();
+        pieceMaps = new long[values().length];
+        moveStack = new int[INITIAL_STACK_SIZE];
+        deltaHashStack = new long[INITIAL_STACK_SIZE];
+        deltaPawnHashStack = new long[INITIAL_STACK_SIZE];
+        deltaScoreStack = new int[INITIAL_STACK_SIZE];
     }
 
     /**
-     * Makes the given move. All pieces will be updated and moved
-     * according the information in move. NormalMove is expected to be
-     * legal.
+     * Makes the given move in the int form of Move. The move is expected
+     * to be legal.
      *
-     * @param move the move to make. Cannot be null.
+     * @param move the move to make.
+     * @return the hash of the board after the move.
      */
-    public long move(Movable move) {
-        if (move != null) {
-            BoardState nextState = move.nextState(getState());
-            stateHistory.push(nextState);
-            hashValue ^= nextState.deltaHash;
+    public long move(int move) {
+        flipMove(move);
+        long deltaHash = getDeltaHash(move);
+        long deltaPawnHash = getDeltaPawnHash(move);
+        int deltaScore = getDeltaScore(move);
+        push(move, deltaHash, deltaPawnHash, deltaScore);
+        hashValue ^= deltaHash;
+        pawnHashValue ^= deltaPawnHash;
+        score += deltaScore;
+        if (listener != null) {
+            listener.moveMade(move);
         }
         return hashValue;
     }
 
-    private BoardState getState() {
-        return stateHistory.peek();
+    /**
+     * Passes the turn without moving a piece. The pass is undone by
+     * undoMove like any other move.
+     *
+     * @return the hash of the board, which does not change.
+     */
+    public long pass() {
+        push(Move.NO_MOVE, 0x0L, 0x0L, 0);
+        if (listener != null) {
+            listener.moveMade(Move.NO_MOVE);
+        }
+        return hashValue;
     }
 
     /**
-     * Undoes the given move.
+     * Undoes the last move or pass.
+     *
+     * @return the hash of the board after the move is undone.
      */
     public long undoMove() {
-        long deltaHash = stateHistory.pop().deltaHash;
-        hashValue ^= deltaHash;
+        stackSize--;
+        int move = moveStack[stackSize];
+        if (move != Move.NO_MOVE) {
+            flipMove(move);
+        }
+        hashValue ^= deltaHashStack[stackSize];
+        pawnHashValue ^= deltaPawnHashStack[stackSize];
+        score -= deltaScoreStack[stackSize];
+        if (listener != null) {
+            listener.moveUndone(move);
+        }
         return hashValue;
     }
 
+    private void push(int move, long deltaHash, long deltaPawnHash, int deltaScore) {
+        if (stackSize == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, 2 * stackSize);
+            deltaHashStack = Arrays.copyOf(deltaHashStack, 2 * stackSize);
+            deltaPawnHashStack = Arrays.copyOf(deltaPawnHashStack, 2 * stackSize);
+            deltaScoreStack = Arrays.copyOf(deltaScoreStack, 2 * stackSize);
+        }
+        moveStack[stackSize] = move;
+        deltaHashStack[stackSize] = deltaHash;
+        deltaPawnHashStack[stackSize] = deltaPawnHash;
+        deltaScoreStack[stackSize] = deltaScore;
+        stackSize++;
+    }
+
+    /**
+     * Flip every bit the given move changes. Every change is an
+     * exclusive or, so flipping the same move twice undoes it.
+     */
+    private void flipMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int moving = Move.getMoving(move);
+        int placed = Move.isPromotion(move) ? Move.getPromoted(move) : moving;
+        boolean isWhite = moving <= WHITE_PAWN.getUniqueIdx();
+        long colorMask = (1L << from) | (1L << to);
+        long opponentMask = 0x0L;
+
+        pieceMaps[moving] ^= 1L << from;
+        pieceMaps[placed] ^= 1L << to;
+
+        if (Move.isCapture(move)) {
+            opponentMask = 1L << Move.getCaptureSquare(move);
+            pieceMaps[Move.getCaptured(move)] ^= opponentMask;
+        } else if (Move.isCastling(move)) {
+            long rookMask = (1L << getCastlingRookFrom(from, to)) |
+                    (1L << getCastlingRookTo(from, to));
+            pieceMaps[(isWhite ? WHITE_ROOK : BLACK_ROOK).getUniqueIdx()] ^= rookMask;
+            colorMask |= rookMask;
+        }
+
+        if (isWhite) {
+            white ^= colorMask;
+            black ^= opponentMask;
+        } else {
+            black ^= colorMask;
+            white ^= opponentMask;
+        }
+        occupied = white | black;
+    }
+
+    /**
+     * @return the change of the hash the given move makes.
+     */
+    private static long getDeltaHash(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int moving = Move.getMoving(move);
+        int placed = Move.isPromotion(move) ? Move.getPromoted(move) : moving;
+
+        long deltaHash = Zobrist.flipPiece(moving, from, 0x0L);
+        deltaHash = Zobrist.flipPiece(placed, to, deltaHash);
+        if (Move.isCapture(move)) {
+            deltaHash = Zobrist.flipPiece(Move.getCaptured(move), Move.getCaptureSquare(move),
+                                          deltaHash);
+        } else if (Move.isCastling(move)) {
+            int rook = (moving == WHITE_KING.getUniqueIdx() ? WHITE_ROOK : BLACK_ROOK)
+                    .getUniqueIdx();
+            deltaHash = Zobrist.flipPiece(rook, getCastlingRookFrom(from, to), deltaHash);
+            deltaHash = Zobrist.flipPiece(rook, getCastlingRookTo(from, to), deltaHash);
+        }
+        return deltaHash;
+    }
+
+    /**
+     * @return the change of the pawn hash the given move makes.
+     */
+    private static long getDeltaPawnHash(int move) {
+        int moving = Move.getMoving(move);
+        int placed = Move.isPromotion(move) ? Move.getPromoted(move) : moving;
+        int captured = Move.getCaptured(move);
+
+        long deltaHash = 0x0L;
+        if (isPawnOrKing(moving)) {
+            deltaHash = Zobrist.flipPiece(moving, Move.getFrom(move), deltaHash);
+        }
+        if (isPawnOrKing(placed)) {
+            deltaHash = Zobrist.flipPiece(placed, Move.getTo(move), deltaHash);
+        }
+        if (isPawnOrKing(captured)) {
+            deltaHash = Zobrist.flipPiece(captured, Move.getCaptureSquare(move), deltaHash);
+        }
+        return deltaHash;
+    }
+
+    private static boolean isPawnOrKing(int pieceIdx) {
+        return pieceIdx == WHITE_PAWN.getUniqueIdx() || pieceIdx == BLACK_PAWN.getUniqueIdx() ||
+                pieceIdx == WHITE_KING.getUniqueIdx() || pieceIdx == BLACK_KING.getUniqueIdx();
+    }
+
+    /**
+     * @return the change of the packed score the given move makes.
+     */
+    private static int getDeltaScore(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int moving = Move.getMoving(move);
+        int placed = Move.isPromotion(move) ? Move.getPromoted(move) : moving;
+
+        int deltaScore = PieceSquareTable.getScore(placed, to) -
+                PieceSquareTable.getScore(moving, from);
+        if (Move.isCapture(move)) {
+            deltaScore -= PieceSquareTable.getScore(Move.getCaptured(move),
+                                                    Move.getCaptureSquare(move));
+        } else if (Move.isCastling(move)) {
+            int rook = (moving == WHITE_KING.getUniqueIdx() ? WHITE_ROOK : BLACK_ROOK)
+                    .getUniqueIdx();
+            deltaScore += PieceSquareTable.getScore(rook, getCastlingRookTo(from, to)) -
+                    PieceSquareTable.getScore(rook, getCastlingRookFrom(from, to));
+        }
+        return deltaScore;
+    }
+
+    /**
+     * @return the starting square of the rook of the castling move of the
+     * king between the given squares.
+     */
+    public static int getCastlingRookFrom(int kingFrom, int kingTo) {
+        return kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+    }
+
+    /**
+     * @return the ending square of the rook of the castling move of the
+     * king between the given squares.
+     */
+    public static int getCastlingRookTo(int kingFrom, int kingTo) {
+        return kingTo > kingFrom ? kingFrom + 1 : kingFrom - 1;
+    }
+
     public List<ChessCoordinate> getLocations(Piece piece) {
-        BitIterator iterator = new BitIterator(getState().pieceMaps[piece.ordinal()]);
+        BitIterator iterator = new BitIterator(pieceMaps[piece.ordinal()]);
         List<ChessCoordinate> locations = new ArrayList<>(8);
         iterator.forEachRemaining(
                 index -> locations.add(ChessCoordinate.getChessCoordinate(index)));
@@ -65,7 +266,7 @@ public class BoardModel {
      */
     public ChessCoordinate getWhiteKingCoord() {
         return ChessCoordinate.getChessCoordinate(
-                Long.numberOfTrailingZeros(getState().pieceMaps[WHITE_KING.ordinal()]));
+                Long.numberOfTrailingZeros(pieceMaps[WHITE_KING.ordinal()]));
     }
 
     /**
@@ -73,7 +274,7 @@ public class BoardModel {
      */
     public ChessCoordinate getBlackKingCoord() {
         return ChessCoordinate.getChessCoordinate(
-                Long.numberOfTrailingZeros(getState().pieceMaps[BLACK_KING.ordinal()]));
+                Long.numberOfTrailingZeros(pieceMaps[BLACK_KING.ordinal()]));
     }
 
     @Override
@@ -88,7 +289,8 @@ public class BoardModel {
         if (!(o instanceof BoardModel that))
             return false;
 
-        return getState().equals(that.getState());
+        return white == that.white && black == that.black &&
+                Arrays.equals(pieceMaps, that.pieceMaps);
     }
 
     /**
@@ -113,7 +315,17 @@ public class BoardModel {
      * @return the piece on the given coordinate.
      */
     public Piece getPieceOn(ChessCoordinate coordinate) {
-        return getState().getPieceOn(coordinate.getBitMask());
+        return getPieceOn(coordinate.getBitMask());
+    }
+
+    /**
+     * Gets the piece on the given square.
+     *
+     * @param square the one dimensional index of the square.
+     * @return the piece on the given square, or null if it is empty.
+     */
+    public Piece getPieceOn(int square) {
+        return getPieceOn(1L << square);
     }
 
     public boolean isPawn(ChessCoordinate coordinate) {
@@ -121,31 +333,73 @@ public class BoardModel {
     }
 
     public boolean coordIsPiece(Piece piece, ChessCoordinate coordinate) {
-        return (getState().pieceMaps[piece.ordinal()] & coordinate.getBitMask()) != 0;
+        return (pieceMaps[piece.ordinal()] & coordinate.getBitMask()) != 0;
     }
 
     public long getOccupancyMap() {
-        return getState().occupied;
+        return occupied;
     }
 
     public long getOccupancyMap(char color) {
-        return color == WHITE ? getState().white : getState().black;
+        return color == WHITE ? white : black;
     }
 
     public long getPieceMap(Piece piece) {
-        return getState().pieceMaps[piece.ordinal()];
+        return pieceMaps[piece.ordinal()];
     }
 
     public long getHashValue() {
         return hashValue;
     }
 
-    public void setPosition(String fen) {
-        stateHistory.clear();
+    /**
+     * Set the listener that is told of every move made and undone on this
+     * board, and of every position set. A board has at most one listener.
+     *
+     * @param listener the listener, or null to remove the listener.
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
 
-        long[] pieceMaps = new long[values().length];
-        long white = 0x0L;
-        long black = 0x0L;
+    /**
+     * @return the listener of this board, or null.
+     */
+    public BoardListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return the hash of only the pawns and kings of this board.
+     */
+    public long getPawnHashValue() {
+        return pawnHashValue;
+    }
+
+    /**
+     * @return the middle game material and square score of the pieces,
+     * positive if white is better.
+     */
+    public int getMidgameScore() {
+        return PieceSquareTable.getMidgame(score);
+    }
+
+    /**
+     * @return the endgame material and square score of the pieces,
+     * positive if white is better.
+     */
+    public int getEndgameScore() {
+        return PieceSquareTable.getEndgame(score);
+    }
+
+    public void setPosition(String fen) {
+        Arrays.fill(pieceMaps, 0x0L);
+        white = 0x0L;
+        black = 0x0L;
+        stackSize = 0;
+        hashValue = 0x0L;
+        pawnHashValue = 0x0L;
+        score = 0;
 
         int pieceIdx = 63;
         for (char c : fen.toCharArray()) {
@@ -187,46 +441,51 @@ public class BoardModel {
 
             hashValue = Zobrist.flipPiece(piece, ChessCoordinate.getChessCoordinate(squareIdx),
                                           hashValue);
+            score += PieceSquareTable.getScore(piece.getUniqueIdx(), squareIdx);
+            if (isPawnOrKing(piece.getUniqueIdx())) {
+                pawnHashValue = Zobrist.flipPiece(piece.getUniqueIdx(), squareIdx,
+                                                  pawnHashValue);
+            }
 
             pieceIdx--;
         }
-        stateHistory.add(new BoardState(pieceMaps, white, black, white | black, hashValue));
-    }
-
-    public record BoardState(long[] pieceMaps, long white, long black, long occupied,
-                             long deltaHash) {
-
-        public Piece getPieceOn(long coordinateMask) {
-            if ((occupied & coordinateMask) != 0) {
-                if ((white & coordinateMask) != 0) {
-                    if ((pieceMaps[WHITE_PAWN.ordinal()] & coordinateMask) != 0)
-                        return WHITE_PAWN;
-                    if ((pieceMaps[WHITE_KNIGHT.ordinal()] & coordinateMask) != 0)
-                        return WHITE_KNIGHT;
-                    if ((pieceMaps[WHITE_BISHOP.ordinal()] & coordinateMask) != 0)
-                        return WHITE_BISHOP;
-                    if ((pieceMaps[WHITE_ROOK.ordinal()] & coordinateMask) != 0)
-                        return WHITE_ROOK;
-                    if ((pieceMaps[WHITE_QUEEN.ordinal()] & coordinateMask) != 0)
-                        return WHITE_QUEEN;
-                    if ((pieceMaps[WHITE_KING.ordinal()] & coordinateMask) != 0)
-                        return WHITE_KING;
-                } else {
-                    if ((pieceMaps[BLACK_PAWN.ordinal()] & coordinateMask) != 0)
-                        return BLACK_PAWN;
-                    if ((pieceMaps[BLACK_KNIGHT.ordinal()] & coordinateMask) != 0)
-                        return BLACK_KNIGHT;
-                    if ((pieceMaps[BLACK_BISHOP.ordinal()] & coordinateMask) != 0)
-                        return BLACK_BISHOP;
-                    if ((pieceMaps[BLACK_ROOK.ordinal()] & coordinateMask) != 0)
-                        return BLACK_ROOK;
-                    if ((pieceMaps[BLACK_QUEEN.ordinal()] & coordinateMask) != 0)
-                        return BLACK_QUEEN;
-                    if ((pieceMaps[BLACK_KING.ordinal()] & coordinateMask) != 0)
-                        return BLACK_KING;
-                }
+        occupied = white | black;
+
+        if (listener != null) {
+            listener.positionSet(this);
+        }
+    }
+
+    private Piece getPieceOn(long coordinateMask) {
+        if ((occupied & coordinateMask) != 0) {
+            if ((white & coordinateMask) != 0) {
+                if ((pieceMaps[WHITE_PAWN.ordinal()] & coordinateMask) != 0)
+                    return WHITE_PAWN;
+                if ((pieceMaps[WHITE_KNIGHT.ordinal()] & coordinateMask) != 0)
+                    return WHITE_KNIGHT;
+                if ((pieceMaps[WHITE_BISHOP.ordinal()] & coordinateMask) != 0)
+                    return WHITE_BISHOP;
+                if ((pieceMaps[WHITE_ROOK.ordinal()] & coordinateMask) != 0)
+                    return WHITE_ROOK;
+                if ((pieceMaps[WHITE_QUEEN.ordinal()] & coordinateMask) != 0)
+                    return WHITE_QUEEN;
+                if ((pieceMaps[WHITE_KING.ordinal()] & coordinateMask) != 0)
+                    return WHITE_KING;
+            } else {
+                if ((pieceMaps[BLACK_PAWN.ordinal()] & coordinateMask) != 0)
+                    return BLACK_PAWN;
+                if ((pieceMaps[BLACK_KNIGHT.ordinal()] & coordinateMask) != 0)
+                    return BLACK_KNIGHT;
+                if ((pieceMaps[BLACK_BISHOP.ordinal()] & coordinateMask) != 0)
+                    return BLACK_BISHOP;
+                if ((pieceMaps[BLACK_ROOK.ordinal()] & coordinateMask) != 0)
+                    return BLACK_ROOK;
+                if ((pieceMaps[BLACK_QUEEN.ordinal()] & coordinateMask) != 0)
+                    return BLACK_QUEEN;
+                if ((pieceMaps[BLACK_KING.ordinal()] & coordinateMask) != 0)
+                    return BLACK_KING;
             }
-            return null;
         }
+        return null;
     }
 }
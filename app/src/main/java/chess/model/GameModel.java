@@ -2,15 +2,14 @@ package chess.model;
 
 import chess.ChessCoordinate;
 import chess.model.moves.Movable;
+import chess.model.moves.Move;
 import chess.model.moves.PromotionMove;
 import chess.model.pieces.Piece;
-import chess.util.FastMap;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import static chess.ChessCoordinate.*;
 import static chess.model.pieces.Piece.*;
@@ -87,39 +86,69 @@ public class GameModel {
      */
     private static final long EN_PASSANT_MASK = 0b111111L << 7;
 
+    /**
+     * The bits of the halfmove clock, the number of plies since the last
+     * capture, pawn move or null move.
+     */
+    private static final int HALFMOVE_CLOCK_SHIFT = 16;
+    private static final long HALFMOVE_CLOCK_MASK = 0xFFFFL << HALFMOVE_CLOCK_SHIFT;
+
+    /**
+     * The bits of the number of times the position has been reached.
+     */
+    private static final int TIMES_REACHED_SHIFT = 32;
+    private static final long TIMES_REACHED_MASK = 0xFFL << TIMES_REACHED_SHIFT;
+
     /**
      * The model for the bard of the chess game.
      */
     private final BoardModel board;
 
     /**
-     * The list of past moves that have occurred in this chess game.
+     * The past moves that have occurred in this chess game, in the int
+     * form of Move. The first numMoves entries are used. A null move is
+     * stored as NO_MOVE.
      */
-    private final List<Movable> moveHistory;
+    private int[] moveHistory;
+    private int numMoves;
 
     /**
-     * The list of each state the board was in before each move. This List
-     * should be 1 larger than moveHistory.
+     * The state of the game at each ply, packed into a long. The state at
+     * index numMoves is the current state.
      * <p>
      * The first 4 bits are casting info, 1 means can castle, 0 means cannot.
      * The next bit is turn, 1 for white, 0 for black.
-     * Bits 6-7 are game over bits. 00 is in progress, 01 loser, 10 draw.
-     * bits 8-13 are the enPassant coordinate.
+     * Bits 5-6 are game over bits. 00 is in progress, 01 loser, 10 draw.
+     * Bits 7-12 are the enPassant coordinate.
+     * Bits 16-31 are the halfmove clock.
+     * Bits 32-39 are the number of times the position has been reached.
      */
-    private final List<FastMap> stateHistory;
+    private long[] stateHistory;
 
     /**
-     * The map that tracks the number of times each position has occurred.
-     * This maps from hashCode -> number of times this hashCode has appeared.
+     * The zobrist hash of the position at each ply. A position can only
+     * repeat a position since the last capture or pawn move, so a
+     * repetition check only scans back as far as the halfmove clock.
      */
-    private final Map<Long, Integer> positionTracker;
+    private long[] hashHistory;
 
     /**
-     * The list of previous legal moves. This is here so the moves don't have
-     * to be recalculated on move undo.
+     * The legal moves at each ply, the list at index numMoves holds the
+     * legal moves of the current position. The lists are reused when
+     * another move is made at the same ply, and are kept on move undo so
+     * the moves don't have to be recalculated.
      */
     private final List<MoveList> previousLegalMoves;
 
+    /**
+     * What is already known of the position at each ply. The legal moves
+     * are only generated, and the game over status only checked, once
+     * they are asked for, and both are kept on move undo.
+     */
+    private byte[] plyFlags;
+    private static final byte MOVES_GENERATED = 0b01;
+    private static final byte GAME_OVER_CHECKED = 0b10;
+
     /**
      * The move generator for this game.
      */
@@ -163,9 +192,10 @@ public class GameModel {
     public GameModel(String fen, boolean threeFold) {
         // Instantiate each of the fields of this GameModel.
         this.board = new BoardModel();
-        this.moveHistory = new ArrayList<>();
-        this.stateHistory = new ArrayList<>();
-        this.positionTracker = new HashMap<>();
+        this.moveHistory = new int[64];
+        this.plyFlags = new byte[moveHistory.length + 1];
+        this.stateHistory = new long[moveHistory.length + 1];
+        this.hashHistory = new long[moveHistory.length + 1];
         this.moveGenerator = new MoveGenerator(this);
         this.previousLegalMoves = new ArrayList<>();
         this.threeFold = threeFold;
@@ -179,10 +209,7 @@ public class GameModel {
 
         // Instantiate each of the fields of this GameModel.
         this.board.setPosition(fenSections[0]);
-        this.moveHistory.clear();
-        this.stateHistory.clear();
-        this.positionTracker.clear();
-        this.previousLegalMoves.clear();
+        this.numMoves = 0;
 
         // Check for EnPassant target
         ChessCoordinate enPassantTarget = !fenSections[3].equals("-") ?
@@ -205,65 +232,57 @@ public class GameModel {
 
         // Initialize the deltaHash with the initial value
         this.hashValue = Zobrist.slowZobrist(this);
+        this.hashHistory[0] = hashValue;
 
-        // Generate the legal moves in this current position
-        previousLegalMoves.add(this.moveGenerator.generateMoves());
-
-        // Set the current position tracker to 1
-        positionTracker.put(hashValue, 1);
+        // The legal moves of this position are generated once they are needed
+        this.plyFlags[0] = 0;
     }
 
     private void addInitialState(boolean whiteKingCastle, boolean whiteQueenCastle,
                                  boolean blackKingCastle, boolean blackQueenCastle, char turn,
                                  ChessCoordinate enPassantTarget) {
-        FastMap stateMap = new FastMap();
+        // The position is reached for the first time
+        long state = 1L << TIMES_REACHED_SHIFT;
 
         // Merge the respective values for the castling masks
-        stateMap.mergeMask(whiteKingCastle ? WHITE_KING_SIDE_CASTLE_MASK : 0);
-        stateMap.mergeMask(whiteQueenCastle ? WHITE_QUEEN_SIDE_CASTLE_MASK : 0);
-        stateMap.mergeMask(blackKingCastle ? BLACK_KING_SIDE_CASTLE_MASK : 0);
-        stateMap.mergeMask(blackQueenCastle ? BLACK_QUEEN_SIDE_CASTLE_MASK : 0);
+        state |= whiteKingCastle ? WHITE_KING_SIDE_CASTLE_MASK : 0;
+        state |= whiteQueenCastle ? WHITE_QUEEN_SIDE_CASTLE_MASK : 0;
+        state |= blackKingCastle ? BLACK_KING_SIDE_CASTLE_MASK : 0;
+        state |= blackQueenCastle ? BLACK_QUEEN_SIDE_CASTLE_MASK : 0;
 
         // Set the turn bit
-        stateMap.mergeMask(turn == WHITE ? WHITE_TO_MOVE_MASK : 0);
+        state |= turn == WHITE ? WHITE_TO_MOVE_MASK : 0;
 
         // Set the enPassant target bits
         if (enPassantTarget != null) {
-            stateMap.mergeMask(((long) enPassantTarget.getOndDimIndex()) << 7);
+            state |= ((long) enPassantTarget.getOndDimIndex()) << 7;
         }
 
-        // Add the state to the current state
-        stateHistory.add(stateMap);
+        // Set the state as the current state
+        stateHistory[0] = state;
     }
 
     /**
      * Copy constructor for GameModel. All fields are copied,
-     * including stateHistory, previousLegalMoves, MoveHistory,
-     * and positionTracker.
+     * including stateHistory, MoveHistory, and hashHistory. The
+     * legal moves are generated again once they are needed.
      *
      * @param gameModel the GameModel to copy
      */
     public GameModel(GameModel gameModel) {
         this(gameModel.getFEN(), gameModel.threeFold);
 
-        stateHistory.clear();
-        for (FastMap fastMap : gameModel.stateHistory) {
-            stateHistory.add(new FastMap(fastMap.getMap()));
-        }
-
-        previousLegalMoves.clear();
-        for (MoveList moves : gameModel.previousLegalMoves) {
-            previousLegalMoves.add(new MoveList(moves));
-        }
-
-        this.moveHistory.addAll(gameModel.moveHistory);
-        this.positionTracker.putAll(gameModel.positionTracker);
+        this.moveHistory = gameModel.moveHistory.clone();
+        this.plyFlags = new byte[moveHistory.length + 1];
+        this.stateHistory = gameModel.stateHistory.clone();
+        this.hashHistory = gameModel.hashHistory.clone();
+        this.numMoves = gameModel.numMoves;
     }
 
     public String getFEN() {
         return getFEN(board.getPieceArray(), getTurn(), canKingSideCastle(WHITE),
                       canQueenSideCastle(WHITE), canKingSideCastle(BLACK),
-                      canQueenSideCastle(BLACK), getEnPassantTarget(), moveHistory.size());
+                      canQueenSideCastle(BLACK), getEnPassantTarget(), numMoves);
     }
 
     /**
@@ -333,7 +352,7 @@ public class GameModel {
      * @return the turn to move.
      */
     public char getTurn() {
-        return getGameState().isMarked(4) ? WHITE : BLACK;
+        return (getGameState() & WHITE_TO_MOVE_MASK) != 0 ? WHITE : BLACK;
     }
 
     /**
@@ -343,8 +362,8 @@ public class GameModel {
      * @return weather the given color can castle kingside
      */
     public boolean canKingSideCastle(char color) {
-        FastMap currentState = getGameState();
-        return color == WHITE ? currentState.isMarked(0) : currentState.isMarked(2);
+        return (getGameState() & (color == WHITE ? WHITE_KING_SIDE_CASTLE_MASK :
+                BLACK_KING_SIDE_CASTLE_MASK)) != 0;
     }
 
     /**
@@ -354,8 +373,8 @@ public class GameModel {
      * @return weather the given color can castle queenside
      */
     public boolean canQueenSideCastle(char color) {
-        FastMap currentState = getGameState();
-        return color == WHITE ? currentState.isMarked(1) : currentState.isMarked(3);
+        return (getGameState() & (color == WHITE ? WHITE_QUEEN_SIDE_CASTLE_MASK :
+                BLACK_QUEEN_SIDE_CASTLE_MASK)) != 0;
     }
 
     /**
@@ -364,17 +383,16 @@ public class GameModel {
      * @return the enPassantTarget in the current position
      */
     public ChessCoordinate getEnPassantTarget() {
-        long stateRep = getGameState().getMap();
-        stateRep = stateRep >> 7;
+        long stateRep = (getGameState() & EN_PASSANT_MASK) >> 7;
 
         return stateRep == 0 ? null : ChessCoordinate.getChessCoordinate((int) stateRep);
     }
 
     /**
-     * @return the gameState.
+     * @return the packed state of the current position.
      */
-    public FastMap getGameState() {
-        return !stateHistory.isEmpty() ? stateHistory.get(stateHistory.size() - 1) : null;
+    public long getGameState() {
+        return stateHistory[numMoves];
     }
 
     public GameModel(byte[] representation) {
@@ -477,79 +495,113 @@ public class GameModel {
      * @return true if the move is successful, false otherwise.
      */
     public boolean move(Movable move) {
-        boolean didMove = false;
-
-        /*
-        long start;
-        long end;
+        return move(Move.of(move, board));
+    }
 
-        start = System.nanoTime();
+    /**
+     * Makes the given move in the int form of Move. The move must be
+     * legal in the current position.
+     *
+     * @param move a legal move.
+     * @return true if the move is successful, false otherwise.
+     */
+    public boolean move(int move) {
         hashValue = board.move(move);
-        end = System.nanoTime();
-        boardMoveTime += end - start;
-        countBoardMove++;
-
-        start = System.nanoTime();
-        moveHistory.add(move);
-        end = System.nanoTime();
-        moveHistoryAddTime += end - start;
-        countMoveHistoryAdd++;
-
-        start = System.nanoTime();
-        stateHistory.add(makeState());
-        end = System.nanoTime();
-        stateHistoryAddTime += end - start;
-        countStateHistoryAdd++;
-
-        start = System.nanoTime();
-        positionTracker.merge(getZobristHash(), 1, Integer::sum);
-        end = System.nanoTime();
-        positionTrackerAddTime += end - start;
-        countPositionTrackerAdd++;
-
-        start = System.nanoTime();
-        MoveList list = moveGenerator.generateMoves();
-        end = System.nanoTime();
-        generateMovesTime += end - start;
-        countGenerateMove++;
-
-        start = System.nanoTime();
-        previousLegalMoves.add(list);
-        end = System.nanoTime();
-        previousMovesAddTime += end - start;
-        countPreviousMoveAdd++;
-
-        start = System.nanoTime();
-        checkGameOver();
-        end = System.nanoTime();
-        checkGameOverTime += end - start;
-        countCheckGameOver++;
-         */
+        pushMove(move);
+        pushState(makeState(move));
 
-        hashValue = board.move(move);
-        moveHistory.add(move);
-        stateHistory.add(makeState());
-        positionTracker.merge(getZobristHash(), 1, Integer::sum);
-        previousLegalMoves.add(moveGenerator.generateMoves());
-        checkGameOver();
+        return true;
+    }
 
-        didMove = true;
+    /**
+     * Add the given move to the move history.
+     */
+    private void pushMove(int move) {
+        if (numMoves == moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, 2 * moveHistory.length);
+            plyFlags = Arrays.copyOf(plyFlags, moveHistory.length + 1);
+            stateHistory = Arrays.copyOf(stateHistory, moveHistory.length + 1);
+            hashHistory = Arrays.copyOf(hashHistory, moveHistory.length + 1);
+        }
+        moveHistory[numMoves++] = move;
+        plyFlags[numMoves] = 0;
+    }
 
-        return didMove;
+    /**
+     * Set the state and hash of the position the last move reached, and
+     * count the times the position was reached before.
+     *
+     * @param state the state of the position, without the times reached.
+     */
+    private void pushState(long state) {
+        hashHistory[numMoves] = hashValue;
+
+        int timesReached = 1;
+        int oldestPly = numMoves - (int) ((state & HALFMOVE_CLOCK_MASK) >>> HALFMOVE_CLOCK_SHIFT);
+        for (int ply = numMoves - 2; ply >= oldestPly; ply -= 2) {
+            if (hashHistory[ply] == hashValue) {
+                timesReached++;
+            }
+        }
+        stateHistory[numMoves] = state | (long) timesReached << TIMES_REACHED_SHIFT;
     }
 
     /**
-     * Create and return the current state. This method also
-     * updates deltaHash.
+     * @return the reusable list for the legal moves at the given ply.
      */
-    private FastMap makeState() {
-        FastMap newState = new FastMap();
-        newState.merge(getGameState());
+    private MoveList getMoveList(int ply) {
+        while (previousLegalMoves.size() <= ply) {
+            previousLegalMoves.add(new MoveList(board));
+        }
+        return previousLegalMoves.get(ply);
+    }
 
-        checkCastling(newState, board.getWhiteKingCoord(), board.getBlackKingCoord());
-        Movable lastMove = getLastMove();
-        checkEnPassant(newState, lastMove, board.isPawn(lastMove.getEndCoordinate()));
-        newState.flip(WHITE_TO_MOVE_MASK);
+    /**
+     * Passes the turn to the other player without moving a piece, which
+     * is not a legal move in chess. The search uses this to find out if
+     * a position is still good when the opponent may move twice. The
+     * pass is undone by undoLastMove, and is recorded as a null move
+     * in the move history.
+     */
+    public void makeNullMove() {
+        long newState = getGameState() & ~(EN_PASSANT_MASK | HALFMOVE_CLOCK_MASK |
+                TIMES_REACHED_MASK);
+        newState ^= WHITE_TO_MOVE_MASK;
+
+        hashValue = board.pass() ^ Zobrist.getGameStateHash(newState);
+        pushMove(Move.NO_MOVE);
+        pushState(newState);
+    }
+
+    /**
+     * @return true if the king of the player to move is attacked.
+     */
+    public boolean isInCheck() {
+        char turn = getTurn();
+        ChessCoordinate king = turn == WHITE ? board.getWhiteKingCoord() :
+                board.getBlackKingCoord();
+        long attackers = MoveGenerator.getAttackersTo(board, king.getOndDimIndex(),
+                                                      board.getOccupancyMap());
+        return (attackers & board.getOccupancyMap(turn == WHITE ? BLACK : WHITE)) != 0;
+    }
+
+    /**
+     * Create and return the state after the given move, from the state
+     * before it. This method also updates deltaHash.
+     *
+     * @param move the move that was made.
+     */
+    private long makeState(int move) {
+        long previousState = stateHistory[numMoves - 1];
+        long newState = previousState & ~(LOSER_MASK | DRAW_MASK | HALFMOVE_CLOCK_MASK |
+                TIMES_REACHED_MASK);
+
+        newState = checkCastling(newState, board.getWhiteKingCoord(), board.getBlackKingCoord());
+        newState = checkEnPassant(newState, move);
+        newState ^= WHITE_TO_MOVE_MASK;
+        if (!Move.isCapture(move) && !Move.getMovingPiece(move).isPawn()) {
+            newState |= (previousState & HALFMOVE_CLOCK_MASK) + (1L << HALFMOVE_CLOCK_SHIFT);
+        }
 
         hashValue ^= Zobrist.getGameStateHash(newState);
         return newState;
@@ -564,25 +616,19 @@ public class GameModel {
 
     /**
      * Check if the game has ended, and update the bits in current
-     * game state.
+     * game state. If the legal moves are not generated yet, the move
+     * generator only checks if there is any legal move.
      */
     private void checkGameOver() {
-        long hash = hashValue;
-        MoveList legalMoves = getLegalMoves();
-        FastMap currentState = getGameState();
+        plyFlags[numMoves] |= GAME_OVER_CHECKED;
 
-        if (threeFold && positionTracker.containsKey(hash) && positionTracker.get(hash) >= 3) {
+        if (threeFold && getNumTimesReached() >= 3) {
             // If this position has been reached 3 times, the game is a draw
-            currentState.mergeMask(DRAW_MASK);
-        } else if (legalMoves.isEmpty()) {
+            stateHistory[numMoves] |= DRAW_MASK;
+        } else if ((plyFlags[numMoves] & MOVES_GENERATED) != 0 ? getLegalMoves().isEmpty() :
+                !moveGenerator.hasLegalMove()) {
             // If this position has no legal moves, then the game is over
-            ChessCoordinate kingToMove =
-                    getTurn() == WHITE ? board.getWhiteKingCoord() : board.getBlackKingCoord();
-            if ((moveGenerator.getOpponentAttackMap() & kingToMove.getBitMask()) != 0) {
-                currentState.mergeMask(LOSER_MASK);
-            } else {
-                currentState.mergeMask(DRAW_MASK);
-            }
+            stateHistory[numMoves] |= isInCheck() ? LOSER_MASK : DRAW_MASK;
         }
     }
 
@@ -592,32 +638,42 @@ public class GameModel {
      * @param state          the state to update
      * @param whiteKingCoord the coordinate of the white king
      * @param blackKingCoord the coordinate of the black king
+     * @return the updated state
      */
-    private void checkCastling(FastMap state, ChessCoordinate whiteKingCoord,
+    private long checkCastling(long state, ChessCoordinate whiteKingCoord,
                                ChessCoordinate blackKingCoord) {
-        if (canKingSideCastle(WHITE) && !(board.getPieceOn(H1) == WHITE_ROOK &&
+        if ((state & WHITE_KING_SIDE_CASTLE_MASK) != 0 && !(board.getPieceOn(H1) == WHITE_ROOK &&
                 whiteKingCoord.equals(E1))) {
-            state.flip(WHITE_KING_SIDE_CASTLE_MASK);
+            state ^= WHITE_KING_SIDE_CASTLE_MASK;
         }
-        if (canQueenSideCastle(WHITE) && !(board.getPieceOn(A1) == WHITE_ROOK &&
+        if ((state & WHITE_QUEEN_SIDE_CASTLE_MASK) != 0 && !(board.getPieceOn(A1) == WHITE_ROOK &&
                 whiteKingCoord.equals(E1))) {
-            state.flip(WHITE_QUEEN_SIDE_CASTLE_MASK);
+            state ^= WHITE_QUEEN_SIDE_CASTLE_MASK;
         }
-        if (canKingSideCastle(BLACK) && !(board.getPieceOn(H8) == BLACK_ROOK &&
+        if ((state & BLACK_KING_SIDE_CASTLE_MASK) != 0 && !(board.getPieceOn(H8) == BLACK_ROOK &&
                 blackKingCoord.equals(E8))) {
-            state.flip(BLACK_KING_SIDE_CASTLE_MASK);
+            state ^= BLACK_KING_SIDE_CASTLE_MASK;
         }
-        if (canQueenSideCastle(BLACK) && !(board.getPieceOn(A8) == BLACK_ROOK &&
+        if ((state & BLACK_QUEEN_SIDE_CASTLE_MASK) != 0 && !(board.getPieceOn(A8) == BLACK_ROOK &&
                 blackKingCoord.equals(E8))) {
-            state.flip(BLACK_QUEEN_SIDE_CASTLE_MASK);
+            state ^= BLACK_QUEEN_SIDE_CASTLE_MASK;
         }
+        return state;
     }
 
     /**
-     * @return the last move made.
+     * @return the last move made, or null if there is none or it was a null move.
      */
     public Movable getLastMove() {
-        return !moveHistory.isEmpty() ? moveHistory.get(moveHistory.size() - 1) : null;
+        return Move.toMovable(getLastPackedMove());
+    }
+
+    /**
+     * @return the last move made in the int form of Move, or NO_MOVE if
+     * there is none or it was a null move.
+     */
+    public int getLastPackedMove() {
+        return numMoves > 0 ? moveHistory[numMoves - 1] : Move.NO_MOVE;
     }
 
     /**
@@ -625,41 +681,49 @@ public class GameModel {
      *
      * @param state    the state to update
      * @param lastMove the last move made
+     * @return the updated state
      */
-    private static void checkEnPassant(FastMap state, Movable lastMove, boolean isPawn) {
-        if (lastMove == null) {
-            throw new IllegalArgumentException("lastMove cannot be null");
-        }
-        ChessCoordinate enPassantTarget = null;
-        if (isPawn && Math.abs(
-                lastMove.getStartCoordinate().getRank() - lastMove.getEndCoordinate().getRank()) ==
-                2) {
-            int rank = lastMove.getStartCoordinate().getRank() == 1 ? 2 : 5;
-            enPassantTarget = ChessCoordinate.getChessCoordinate(
-                    lastMove.getEndCoordinate().getFile(), rank);
+    private static long checkEnPassant(long state, int lastMove) {
+        if (lastMove == Move.NO_MOVE) {
+            throw new IllegalArgumentException("lastMove cannot be NO_MOVE");
         }
 
-        state.clearMask(EN_PASSANT_MASK);
-        if (enPassantTarget != null) {
-            state.mergeMask(((long) enPassantTarget.getOndDimIndex()) << 7);
+        state &= ~EN_PASSANT_MASK;
+        Piece moving = Move.getMovingPiece(lastMove);
+        if (moving.isPawn() && Math.abs(Move.getTo(lastMove) - Move.getFrom(lastMove)) == 16) {
+            long enPassantTarget = (Move.getFrom(lastMove) + Move.getTo(lastMove)) / 2;
+            state |= enPassantTarget << 7;
         }
+        return state;
     }
 
     /**
+     * The legal moves are generated on the first call in a position, and
+     * the same list is returned until a move is made.
+     *
      * @return the legal moves in the current position.
      */
     public MoveList getLegalMoves() {
-        return previousLegalMoves.get(previousLegalMoves.size() - 1);
+        MoveList legalMoves = getMoveList(numMoves);
+        if ((plyFlags[numMoves] & MOVES_GENERATED) == 0) {
+            moveGenerator.generateMoves(legalMoves);
+            plyFlags[numMoves] |= MOVES_GENERATED;
+        }
+        return legalMoves;
     }
 
     /**
      * @return the game over status of the game.
      */
     public char getGameOverStatus() {
-        FastMap currentState = getGameState();
-        if (currentState.isMarked(5)) {
+        if ((plyFlags[numMoves] & GAME_OVER_CHECKED) == 0) {
+            checkGameOver();
+        }
+
+        long currentState = getGameState();
+        if ((currentState & LOSER_MASK) != 0) {
             return LOSER;
-        } else if (currentState.isMarked(6)) {
+        } else if ((currentState & DRAW_MASK) != 0) {
             return DRAW;
         }
         return IN_PROGRESS;
@@ -689,26 +753,9 @@ public class GameModel {
      * nothing happens.
      */
     public void undoLastMove() {
-        if (!moveHistory.isEmpty()) {
-            long hash = getZobristHash();
-
-            // Decrement the position tracker of the current position by 1
-            if (!positionTracker.containsKey(hash)) {
-                System.out.println("oof");
-            }
-            positionTracker.merge(hash, -1, Integer::sum);
-            if (positionTracker.get(hash) == 0) {
-                positionTracker.remove(hash);
-            }
-
-            // remove the current move from move history.
-            moveHistory.remove(moveHistory.size() - 1);
-
-            // Remove the current state from stateHistory.
-            stateHistory.remove(stateHistory.size() - 1);
-
-            // Remove the current legal moves
-            previousLegalMoves.remove(previousLegalMoves.size() - 1);
+        if (numMoves > 0) {
+            // Remove the current move and state from the history.
+            numMoves--;
 
             // Update deltaHash
             hashValue = Zobrist.getGameStateHash(getGameState());
@@ -730,11 +777,21 @@ public class GameModel {
         return Zobrist.getHashValueWithTimesMoved(hashValue, getNumTimesReached());
     }
 
+    /**
+     * A search scores a repeated position as a draw, as the side that
+     * can claim the draw can repeat the position again.
+     *
+     * @return if the current position was reached before in this game.
+     */
+    public boolean isRepetition() {
+        return getNumTimesReached() > 1;
+    }
+
     /**
      * @return the number of times this position has been reached.
      */
     private int getNumTimesReached() {
-        return positionTracker.get(getZobristHash());
+        return (int) ((getGameState() & TIMES_REACHED_MASK) >>> TIMES_REACHED_SHIFT);
     }
 
     @Override
@@ -746,13 +803,14 @@ public class GameModel {
 
         if (!getBoard().equals(gameModel.getBoard()))
             return false;
-        if (!moveHistory.equals(gameModel.moveHistory))
-            return false;
-        if (!stateHistory.equals(gameModel.stateHistory))
+        if (!Arrays.equals(moveHistory, 0, numMoves, gameModel.moveHistory, 0,
+                           gameModel.numMoves))
             return false;
-        if (!positionTracker.equals(gameModel.positionTracker))
+        if (!Arrays.equals(stateHistory, 0, numMoves + 1, gameModel.stateHistory, 0,
+                           gameModel.numMoves + 1))
             return false;
-        if (!previousLegalMoves.equals(gameModel.previousLegalMoves))
+        if (!Arrays.equals(hashHistory, 0, numMoves + 1, gameModel.hashHistory, 0,
+                           gameModel.numMoves + 1))
             return false;
         return moveGenerator.equals(gameModel.moveGenerator);
     }
@@ -851,10 +909,10 @@ public class GameModel {
     }
 
     public int moveNum() {
-        return moveHistory.size();
+        return numMoves;
     }
 
     public boolean hasEPTarget() {
-        return getGameState().getMap() >> 7 != 0;
+        return (getGameState() & EN_PASSANT_MASK) != 0;
     }
 }
@@ -1,6 +1,7 @@
 package chess.model;
 
 import chess.ChessCoordinate;
+import chess.model.moves.Move;
 import chess.model.pieces.Direction;
 import chess.model.pieces.Directions;
 import chess.model.pieces.Piece;
@@ -216,9 +217,35 @@ public class MoveGenerator {
     private boolean inCheck;
     private boolean inDoubleCheck;
     private MoveList moves;
+    private boolean foundMove;
     private PieceGroup friendlyPieceGroup;
     private PieceGroup attackingPieceGroup;
 
+    /**
+     * The attack data above only depends on the position, so it is kept
+     * until the position changes, which is found from its hash and
+     * occupancy. A move picker asks the same generator for the moves of
+     * one position a few times, one kind of move at a time.
+     */
+    private boolean hasAttackData;
+    private long attackDataHash;
+    private long attackDataOccupancy;
+
+    /**
+     * The squares moves are generated from, and the squares they may end
+     * on. Captures end on enemy pieces, quiet moves on empty squares, and
+     * the tactical targets are the ends of promotions and en passant.
+     */
+    private long origins;
+    private long captureTargets;
+    private long quietTargets;
+    private long tacticalTargets;
+
+    /**
+     * The moves of a single piece, used to find a move from its key.
+     */
+    private MoveList keyMoves;
+
     public MoveGenerator(GameModel game) {
         this.game = game;
         this.board = game.getBoard();
@@ -572,35 +599,240 @@ public class MoveGenerator {
         return kingMoveMasks;
     }
 
+    /**
+     * @return a new list of the legal moves in the current position.
+     */
     public MoveList generateMoves() {
-        resetState();
+        return generateMoves(new MoveList(board));
+    }
 
-        if (friendlyPieceGroup.kingCoord != null) {
-            calculateAttackData();
+    /**
+     * Fill the given list with the legal moves in the current position.
+     * Any moves already in the list are removed.
+     *
+     * @param moves the list to fill.
+     * @return the given list.
+     */
+    public MoveList generateMoves(MoveList moves) {
+        return generate(moves, ~0L, ~0L, true, true);
+    }
+
+    /**
+     * @return a new list of the legal captures and promotions in the
+     * current position.
+     */
+    public MoveList generateCaptures() {
+        return generateCaptures(new MoveList(board));
+    }
+
+    /**
+     * Fill the given list with the legal captures and promotions in the
+     * current position. Only the squares of enemy pieces are tried as
+     * the ends of captures. Any moves already in the list are removed.
+     *
+     * @param moves the list to fill.
+     * @return the given list.
+     */
+    public MoveList generateCaptures(MoveList moves) {
+        return generate(moves, ~0L, ~0L, true, false);
+    }
+
+    /**
+     * @return a new list of the legal moves in the current position that
+     * neither capture nor promote.
+     */
+    public MoveList generateQuiets() {
+        return generateQuiets(new MoveList(board));
+    }
+
+    /**
+     * Fill the given list with the legal moves in the current position
+     * that neither capture nor promote, castling included. Any moves
+     * already in the list are removed.
+     *
+     * @param moves the list to fill.
+     * @return the given list.
+     */
+    public MoveList generateQuiets(MoveList moves) {
+        return generate(moves, ~0L, ~0L, false, true);
+    }
+
+    /**
+     * @return a new list of the legal moves in the current position,
+     * which must be in check.
+     */
+    public MoveList generateEvasions() {
+        return generateEvasions(new MoveList(board));
+    }
+
+    /**
+     * Fill the given list with the legal moves of a player in check. The
+     * king steps to any square that is not attacked, and in single check
+     * every other piece may only end on the check ray, capturing the
+     * checking piece or blocking it, so only those squares are tried. If
+     * the player to move is not in check, every legal move is generated.
+     * Any moves already in the list are removed.
+     *
+     * @param moves the list to fill.
+     * @return the given list.
+     */
+    public MoveList generateEvasions(MoveList moves) {
+        moves.clear();
+        this.moves = moves;
+        prepare();
+        if (!inCheck) {
+            return generate(moves, ~0L, ~0L, true, true);
+        }
+
+        setTargets(~0L, ~0L, true, true);
+        generateKingMoves();
+        if (!inDoubleCheck) {
+            captureTargets &= checkRayMask;
+            quietTargets &= checkRayMask;
+            generatePieceMoves();
+        }
+        return moves;
+    }
+
+    /**
+     * Find the legal move with the given key in the current position.
+     * Only the moves from the starting square to the ending square of
+     * the key are generated, so a move from the transposition table, or
+     * a killer move, can be checked without generating every move.
+     *
+     * @param key the key of the move, see Move.getKey.
+     * @return the move with the given key, or NO_MOVE if it is not legal.
+     */
+    public int getLegalMove(int key) {
+        if (key == Move.NO_MOVE) {
+            return Move.NO_MOVE;
+        }
+        if (keyMoves == null) {
+            keyMoves = new MoveList(board);
+        }
+
+        generate(keyMoves, 1L << Move.getFrom(key), 1L << Move.getTo(key), true, true);
+        int idx = keyMoves.indexOfKey(key);
+        return idx < 0 ? Move.NO_MOVE : keyMoves.get(idx);
+    }
+
+    /**
+     * Fill the given list with the legal moves from any of the origins to
+     * any of the targets, of the given kinds.
+     */
+    private MoveList generate(MoveList moves, long origins, long targets, boolean captures,
+                              boolean quiets) {
+        moves.clear();
+        this.moves = moves;
+        prepare();
+        setTargets(origins, targets, captures, quiets);
+
+        if (friendlyPieceGroup.kingCoord != null &&
+                (friendlyPieceGroup.kingCoord.getBitMask() & origins) != 0) {
             generateKingMoves();
         }
 
         if (!inDoubleCheck) {
-            long queens = board.getPieceMap(friendlyPieceGroup.queen);
-            long rooks = board.getPieceMap(friendlyPieceGroup.rook);
-            long bishops = board.getPieceMap(friendlyPieceGroup.bishop);
-            generateRookAndBishopMoves((queens | rooks) & ~d12PinRayMap, queens, hvPinRayMap,
-                                       friendlyPieceGroup.rook, ROOK_TABLE, ROOK_MOVE_MASKS,
-                                       ROOK_MAGICS);
-            generateRookAndBishopMoves((queens | bishops) & ~hvPinRayMap, queens, d12PinRayMap,
-                                       friendlyPieceGroup.bishop, BISHOP_TABLE, BISHOP_MOVE_MASKS,
-                                       BISHOP_MAGICS);
-            generateKnightMoves();
-            generatePawnMoves();
+            generatePieceMoves();
         }
 
         return moves;
     }
 
+    /**
+     * Generate the moves of every piece but the king.
+     */
+    private void generatePieceMoves() {
+        long queens = board.getPieceMap(friendlyPieceGroup.queen) & origins;
+        long rooks = board.getPieceMap(friendlyPieceGroup.rook) & origins;
+        long bishops = board.getPieceMap(friendlyPieceGroup.bishop) & origins;
+        generateRookAndBishopMoves((queens | rooks) & ~d12PinRayMap, queens, hvPinRayMap,
+                                   friendlyPieceGroup.rook, ROOK_TABLE, ROOK_MOVE_MASKS,
+                                   ROOK_MAGICS);
+        generateRookAndBishopMoves((queens | bishops) & ~hvPinRayMap, queens, d12PinRayMap,
+                                   friendlyPieceGroup.bishop, BISHOP_TABLE, BISHOP_MOVE_MASKS,
+                                   BISHOP_MAGICS);
+        generateKnightMoves();
+        generatePawnMoves();
+    }
+
+    /**
+     * Find out if the player to move has a legal move, without building
+     * the list of moves. The search stops after the first kind of piece
+     * that has a legal move, and the king is tried first, as it is the
+     * most likely to be able to move.
+     *
+     * @return if the current position has a legal move.
+     */
+    public boolean hasLegalMove() {
+        this.moves = null;
+        prepare();
+        setTargets(~0L, ~0L, true, true);
+
+        if (friendlyPieceGroup.kingCoord != null) {
+            generateKingMoves();
+        }
+        if (foundMove || inDoubleCheck) {
+            return foundMove;
+        }
+
+        long queens = board.getPieceMap(friendlyPieceGroup.queen);
+        long rooks = board.getPieceMap(friendlyPieceGroup.rook);
+        long bishops = board.getPieceMap(friendlyPieceGroup.bishop);
+        generateRookAndBishopMoves((queens | rooks) & ~d12PinRayMap, queens, hvPinRayMap,
+                                   friendlyPieceGroup.rook, ROOK_TABLE, ROOK_MOVE_MASKS,
+                                   ROOK_MAGICS);
+        if (foundMove) {
+            return true;
+        }
+        generateRookAndBishopMoves((queens | bishops) & ~hvPinRayMap, queens, d12PinRayMap,
+                                   friendlyPieceGroup.bishop, BISHOP_TABLE, BISHOP_MOVE_MASKS,
+                                   BISHOP_MAGICS);
+        if (foundMove) {
+            return true;
+        }
+        generateKnightMoves();
+        if (foundMove) {
+            return true;
+        }
+        generatePawnMoves();
+        return foundMove;
+    }
+
+    /**
+     * Calculate the attack data of the current position, unless it is
+     * the position of the last call.
+     */
+    private void prepare() {
+        this.foundMove = false;
+
+        long hash = game.getZobristHash();
+        long occupancy = board.getOccupancyMap();
+        if (hasAttackData && hash == attackDataHash && occupancy == attackDataOccupancy) {
+            return;
+        }
+
+        resetState();
+        if (friendlyPieceGroup.kingCoord != null) {
+            calculateAttackData();
+        }
+        this.hasAttackData = true;
+        this.attackDataHash = hash;
+        this.attackDataOccupancy = occupancy;
+    }
+
+    private void setTargets(long origins, long targets, boolean captures, boolean quiets) {
+        this.origins = origins;
+        this.captureTargets = captures ?
+                targets & board.getOccupancyMap(attackingPieceGroup.color) : 0;
+        this.quietTargets = quiets ? targets & ~board.getOccupancyMap() : 0;
+        this.tacticalTargets = captures ? targets : 0;
+    }
+
     private void resetState() {
-        this.moves = new MoveList(board);
         this.inCheck = false;
         this.inDoubleCheck = false;
+        this.foundMove = false;
 
         this.checkRayMask = 0;
         this.hvPinRayMap = 0;
@@ -645,11 +877,15 @@ public class MoveGenerator {
     private void generateKingMoves() {
         // Add moves for the regular king moves
         long kingMoveMask = KING_MOVE_MASKS[friendlyPieceGroup.kingCoord.getOndDimIndex()] &
-                ~(board.getOccupancyMap(friendlyPieceGroup.color) | opponentAttackMap);
+                ~(board.getOccupancyMap(friendlyPieceGroup.color) | opponentAttackMap) &
+                (captureTargets | quietTargets);
         addMoves(friendlyPieceGroup.king, friendlyPieceGroup.kingCoord.getBitMask(), kingMoveMask,
                  MoveList.Status.NORMAL);
 
-        // Add castling moves
+        // Add castling moves, which are never legal in check
+        if (inCheck || quietTargets == 0) {
+            return;
+        }
         kingMoveMask = 0x0L;
         long occupancy = (board.getOccupancyMap() ^ friendlyPieceGroup.kingCoord.getBitMask());
         if (friendlyPieceGroup.color == WHITE) {
@@ -668,8 +904,8 @@ public class MoveGenerator {
                 kingMoveMask |= C8.getBitMask();
         }
 
-        addMoves(friendlyPieceGroup.king, friendlyPieceGroup.kingCoord.getBitMask(), kingMoveMask,
-                 MoveList.Status.CASTLING);
+        addMoves(friendlyPieceGroup.king, friendlyPieceGroup.kingCoord.getBitMask(),
+                 kingMoveMask & quietTargets, MoveList.Status.CASTLING);
     }
 
     private void generateRookAndBishopMoves(long slidingPieceMask, long queenMask, long pinMask,
@@ -682,8 +918,7 @@ public class MoveGenerator {
         while (bitIterator.hasNext()) {
             int square = bitIterator.next();
 
-            long legalMoveMap = pinMask & checkRayMask & ~board.getOccupancyMap(
-                    friendlyPieceGroup.color);
+            long legalMoveMap = pinMask & checkRayMask & (captureTargets | quietTargets);
             legalMoveMap &= table[square][magics[square].getIndex(
                     board.getOccupancyMap() & moveMasks[square])];
 
@@ -700,7 +935,7 @@ public class MoveGenerator {
         while (bitIterator.hasNext()) {
             int square = bitIterator.next();
 
-            long legalMoveMap = checkRayMask & ~board.getOccupancyMap(friendlyPieceGroup.color);
+            long legalMoveMap = checkRayMask & (captureTargets | quietTargets);
             legalMoveMap &= table[square][magics[square].getIndex(
                     board.getOccupancyMap() & moveMasks[square])];
 
@@ -715,12 +950,13 @@ public class MoveGenerator {
     }
 
     private void generateKnightMoves() {
-        long knights = board.getPieceMap(friendlyPieceGroup.knight) & ~(hvPinRayMap | d12PinRayMap);
+        long knights = board.getPieceMap(friendlyPieceGroup.knight) &
+                ~(hvPinRayMap | d12PinRayMap) & origins;
         BitIterator bitIterator = new BitIterator(knights);
         while (bitIterator.hasNext()) {
             int square = bitIterator.next();
-            long moveMask = KNIGHT_MOVE_MASKS[square] & ~board.getOccupancyMap(
-                    friendlyPieceGroup.color) & checkRayMask;
+            long moveMask = KNIGHT_MOVE_MASKS[square] & (captureTargets | quietTargets) &
+                    checkRayMask;
             addMoves(friendlyPieceGroup.knight, ChessCoordinate.getBitMask(square), moveMask,
                      MoveList.Status.NORMAL);
         }
@@ -728,7 +964,7 @@ public class MoveGenerator {
 
     private void generatePawnMoves() {
 
-        long pawns = board.getPieceMap(friendlyPieceGroup.pawn);
+        long pawns = board.getPieceMap(friendlyPieceGroup.pawn) & origins;
         long enemy = board.getOccupancyMap(attackingPieceGroup.color);
         long empty = ~board.getOccupancyMap();
 
@@ -766,18 +1002,23 @@ public class MoveGenerator {
 
         lPawns &= enemy;
         rPawns &= enemy;
+        promotion &= tacticalTargets;
 
-        addMoves(friendlyPieceGroup.pawn, 0, lPawns & notPromotion, MoveList.Status.PAWN_TAKE_LEFT);
-        addMoves(friendlyPieceGroup.pawn, 0, rPawns & notPromotion,
+        addMoves(friendlyPieceGroup.pawn, 0, lPawns & notPromotion & captureTargets,
+                 MoveList.Status.PAWN_TAKE_LEFT);
+        addMoves(friendlyPieceGroup.pawn, 0, rPawns & notPromotion & captureTargets,
                  MoveList.Status.PAWN_TAKE_RIGHT);
-        addMoves(friendlyPieceGroup.pawn, 0, fPawns & notPromotion, MoveList.Status.PAWN_FORWARD);
-        addMoves(friendlyPieceGroup.pawn, 0, pPawns, MoveList.Status.PAWN_PUSH);
+        addMoves(friendlyPieceGroup.pawn, 0, fPawns & notPromotion & quietTargets,
+                 MoveList.Status.PAWN_FORWARD);
+        addMoves(friendlyPieceGroup.pawn, 0, pPawns & quietTargets, MoveList.Status.PAWN_PUSH);
         addMoves(friendlyPieceGroup.pawn, 0, lPawns & promotion, MoveList.Status.PAWN_PROMOTE_LEFT);
         addMoves(friendlyPieceGroup.pawn, 0, rPawns & promotion,
                  MoveList.Status.PAWN_PROMOTE_RIGHT);
         addMoves(friendlyPieceGroup.pawn, 0, fPawns & promotion, MoveList.Status.PAWN_PROMOTE);
-        addMoves(friendlyPieceGroup.pawn, 0, eplTargetBit, MoveList.Status.EN_PASSANT_LEFT);
-        addMoves(friendlyPieceGroup.pawn, 0, eprTargetBit, MoveList.Status.EN_PASSANT_RIGHT);
+        addMoves(friendlyPieceGroup.pawn, 0, eplTargetBit & tacticalTargets,
+                 MoveList.Status.EN_PASSANT_LEFT);
+        addMoves(friendlyPieceGroup.pawn, 0, eprTargetBit & tacticalTargets,
+                 MoveList.Status.EN_PASSANT_RIGHT);
     }
 
     /**
@@ -894,8 +1135,11 @@ public class MoveGenerator {
 
     private void addMoves(Piece piece, long startingCoordinate, long moveMask,
                           MoveList.Status status) {
-        if (moveMask != 0)
-            moves.add(piece, startingCoordinate, moveMask, status);
+        if (moveMask != 0) {
+            foundMove = true;
+            if (moves != null)
+                moves.add(piece, startingCoordinate, moveMask, status);
+        }
     }
 
     private long pruneStraight(long mask) {
@@ -984,6 +1228,69 @@ public class MoveGenerator {
         return opponentAttackMap;
     }
 
+    /**
+     * Get every piece of either color that attacks the given square, as if
+     * only the squares in occupancy were occupied. Pieces that are not in
+     * occupancy are never returned, so removing a piece from occupancy
+     * reveals the sliding pieces behind it.
+     *
+     * @param board     the board to find the attacking pieces on.
+     * @param square    the index of the attacked square.
+     * @param occupancy the occupied squares.
+     * @return the map of every piece attacking the given square.
+     */
+    public static long getAttackersTo(BoardModel board, int square, long occupancy) {
+        long squareMask = ChessCoordinate.getBitMask(square);
+        long rookAttacks = getRookAttacks(square, occupancy);
+        long bishopAttacks = getBishopAttacks(square, occupancy);
+        long queens = board.getPieceMap(WHITE_QUEEN) | board.getPieceMap(BLACK_QUEEN);
+
+        long attackers = rookAttacks & (queens | board.getPieceMap(WHITE_ROOK) |
+                board.getPieceMap(BLACK_ROOK));
+        attackers |= bishopAttacks & (queens | board.getPieceMap(WHITE_BISHOP) |
+                board.getPieceMap(BLACK_BISHOP));
+        attackers |= KNIGHT_MOVE_MASKS[square] & (board.getPieceMap(WHITE_KNIGHT) |
+                board.getPieceMap(BLACK_KNIGHT));
+        attackers |= KING_MOVE_MASKS[square] & (board.getPieceMap(WHITE_KING) |
+                board.getPieceMap(BLACK_KING));
+
+        // Pawns attack the square from one rank behind it, relative to their color
+        attackers |= board.getPieceMap(WHITE_PAWN) & (((squareMask & ~FILE_MASKS[0]) >>> 9) |
+                ((squareMask & ~FILE_MASKS[7]) >>> 7));
+        attackers |= board.getPieceMap(BLACK_PAWN) & (((squareMask & ~FILE_MASKS[0]) << 7) |
+                ((squareMask & ~FILE_MASKS[7]) << 9));
+
+        return attackers & occupancy;
+    }
+
+    /**
+     * @param square    the index of the square of the rook.
+     * @param occupancy the occupied squares.
+     * @return the squares a rook on the given square attacks.
+     */
+    public static long getRookAttacks(int square, long occupancy) {
+        return ROOK_TABLE[square][ROOK_MAGICS[square].getIndex(
+                occupancy & ROOK_MOVE_MASKS[square])];
+    }
+
+    /**
+     * @param square    the index of the square of the bishop.
+     * @param occupancy the occupied squares.
+     * @return the squares a bishop on the given square attacks.
+     */
+    public static long getBishopAttacks(int square, long occupancy) {
+        return BISHOP_TABLE[square][BISHOP_MAGICS[square].getIndex(
+                occupancy & BISHOP_MOVE_MASKS[square])];
+    }
+
+    /**
+     * @param square the index of the square of the knight.
+     * @return the squares a knight on the given square attacks.
+     */
+    public static long getKnightAttacks(int square) {
+        return KNIGHT_MOVE_MASKS[square];
+    }
+
     private static class PieceGroup {
         private final char color;
         private final Piece pawn;
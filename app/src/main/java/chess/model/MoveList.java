@@ -1,73 +1,189 @@
 package chess.model;
 
-import chess.ChessCoordinate;
-import chess.model.moves.EnPassantMove;
+import chess.model.moves.Move;
 import chess.model.moves.Movable;
-import chess.model.moves.NormalMove;
-import chess.model.moves.PromotionMove;
 import chess.model.pieces.Piece;
-import chess.util.BitIterator;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-import static chess.model.moves.CastlingMove.*;
+import static chess.model.GameModel.WHITE;
 import static chess.model.pieces.Piece.*;
 
+/**
+ * A list of moves in the int form of Move. The list is a reusable
+ * buffer, clear empties it without freeing memory, so the same list can
+ * be filled again for every position at the same ply.
+ */
 public class MoveList implements Iterable<Movable> {
 
-    private final List<MoveData> moveData;
+    /**
+     * More moves than any legal chess position has.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
     private final BoardModel board;
-    private final Deque<PromotionMove> potentialPromotions;
+    private int size;
 
     public MoveList(BoardModel board) {
-        this.moveData = new ArrayList<>();
+        this.moves = new int[MAX_MOVES];
         this.board = board;
-        this.potentialPromotions = new ArrayDeque<>(4);
+        this.size = 0;
     }
 
     public MoveList(MoveList moveList) {
-        this.moveData = new ArrayList<>(moveList.moveData);
+        this.moves = moveList.moves.clone();
         this.board = moveList.board;
-        this.potentialPromotions = new ArrayDeque<>(moveList.potentialPromotions);
+        this.size = moveList.size;
+    }
+
+    /**
+     * Remove every move of this list.
+     */
+    public void clear() {
+        size = 0;
     }
 
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Add a move for every bit of the move map. Pawn moves are given by
+     * their ending squares, and every pawn promotion is added once for
+     * each piece it can promote to, queen first.
+     *
+     * @param movingPiece the piece that moves.
+     * @param coordinate  the starting square of a piece other than a pawn.
+     * @param moveMap     the ending squares of the moves.
+     * @param status      the kind of move.
+     */
     public void add(Piece movingPiece, long coordinate, long moveMap, Status status) {
-        moveData.add(new MoveData(movingPiece, coordinate, moveMap, status));
+        boolean isWhite = movingPiece.getColor() == WHITE;
+        int moving = movingPiece.getUniqueIdx();
+        int from = Long.numberOfTrailingZeros(coordinate);
+
+        while (moveMap != 0) {
+            int to = Long.numberOfTrailingZeros(moveMap);
+            moveMap &= moveMap - 1;
+
+            switch (status) {
+                case NORMAL -> add(Move.create(from, to, moving, capturedOn(to), 0, Move.NORMAL));
+                case CASTLING -> add(Move.create(from, to, moving, 0, 0, Move.CASTLING));
+                case PAWN_FORWARD -> add(Move.create(isWhite ? to - 8 : to + 8, to, moving, 0, 0,
+                                                     Move.NORMAL));
+                case PAWN_PUSH -> add(Move.create(isWhite ? to - 16 : to + 16, to, moving, 0, 0,
+                                                  Move.NORMAL));
+                case PAWN_TAKE_LEFT -> add(Move.create(isWhite ? to - 7 : to + 9, to, moving,
+                                                       capturedOn(to), 0, Move.NORMAL));
+                case PAWN_TAKE_RIGHT -> add(Move.create(isWhite ? to - 9 : to + 7, to, moving,
+                                                        capturedOn(to), 0, Move.NORMAL));
+                case PAWN_PROMOTE -> addPromotions(isWhite ? to - 8 : to + 8, to, isWhite);
+                case PAWN_PROMOTE_LEFT -> addPromotions(isWhite ? to - 7 : to + 9, to, isWhite);
+                case PAWN_PROMOTE_RIGHT -> addPromotions(isWhite ? to - 9 : to + 7, to, isWhite);
+                case EN_PASSANT_LEFT -> add(Move.create(isWhite ? to - 7 : to + 9, to, moving,
+                                                        enPassantCaptured(isWhite), 0,
+                                                        Move.EN_PASSANT));
+                case EN_PASSANT_RIGHT -> add(Move.create(isWhite ? to - 9 : to + 7, to, moving,
+                                                         enPassantCaptured(isWhite), 0,
+                                                         Move.EN_PASSANT));
+            }
+        }
+    }
+
+    private void addPromotions(int from, int to, boolean isWhite) {
+        int pawn = (isWhite ? WHITE_PAWN : BLACK_PAWN).getUniqueIdx();
+        int captured = capturedOn(to);
+        add(Move.create(from, to, pawn, captured,
+                        (isWhite ? WHITE_QUEEN : BLACK_QUEEN).getUniqueIdx(), Move.NORMAL));
+        add(Move.create(from, to, pawn, captured,
+                        (isWhite ? WHITE_KNIGHT : BLACK_KNIGHT).getUniqueIdx(), Move.NORMAL));
+        add(Move.create(from, to, pawn, captured,
+                        (isWhite ? WHITE_BISHOP : BLACK_BISHOP).getUniqueIdx(), Move.NORMAL));
+        add(Move.create(from, to, pawn, captured,
+                        (isWhite ? WHITE_ROOK : BLACK_ROOK).getUniqueIdx(), Move.NORMAL));
+    }
+
+    private int capturedOn(int square) {
+        Piece captured = board.getPieceOn(square);
+        return captured == null ? 0 : captured.getUniqueIdx();
+    }
+
+    private static int enPassantCaptured(boolean isWhite) {
+        return (isWhite ? BLACK_PAWN : WHITE_PAWN).getUniqueIdx();
+    }
+
+    /**
+     * @param idx the index of the move.
+     * @return the move at the given index.
+     */
+    public int get(int idx) {
+        return moves[idx];
+    }
+
+    /**
+     * Swap the moves at the given indices.
+     */
+    public void swap(int firstIdx, int secondIdx) {
+        int move = moves[firstIdx];
+        moves[firstIdx] = moves[secondIdx];
+        moves[secondIdx] = move;
+    }
+
+    /**
+     * @return the index of the move with the given key, or -1 if there is none.
+     */
+    public int indexOfKey(int key) {
+        for (int idx = 0; idx < size; idx++) {
+            if (Move.getKey(moves[idx]) == key) {
+                return idx;
+            }
+        }
+        return -1;
     }
 
     @Override
     public @NonNull Iterator<Movable> iterator() {
-        return new MoveIterator();
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Movable next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return Move.toMovable(moves[index++]);
+            }
+        };
     }
 
     public boolean isEmpty() {
-        return moveData.isEmpty();
+        return size == 0;
     }
 
     public List<Movable> toList() {
-        List<Movable> moves = new ArrayList<>();
+        List<Movable> moves = new ArrayList<>(size);
         this.forEach(moves::add);
         return moves;
     }
 
     public int size() {
-        int numMoves = 0;
-
-        for (MoveData data : moveData) {
-            if (data.status == Status.PAWN_PROMOTE || data.status == Status.PAWN_PROMOTE_RIGHT ||
-                    data.status == Status.PAWN_PROMOTE_LEFT) {
-                numMoves += 4;
-            } else {
-                numMoves += Long.bitCount(data.moveMap);
-            }
-        }
+        return size;
+    }
 
-        return numMoves;
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.stream(moves, 0, size).mapToObj(Move::toString).toArray());
     }
 
     public enum Status {
@@ -83,131 +199,4 @@ public class MoveList implements Iterable<Movable> {
         EN_PASSANT_RIGHT,
         EN_PASSANT_LEFT
     }
-
-    private record MoveData(Piece movingPiece, long coordinate, long moveMap, Status status) {}
-
-    private class MoveIterator implements Iterator<Movable> {
-
-        private int index;
-        private MoveData currentMoveData;
-        private BitIterator bitIterator;
-
-        public MoveIterator() {
-            if (moveData.isEmpty())
-                return;
-
-            index = 0;
-            currentMoveData = moveData.get(index++);
-            bitIterator = new BitIterator(currentMoveData.moveMap);
-        }
-
-        @Override
-        public boolean hasNext() {
-            return bitIterator != null && (bitIterator.hasNext() || !potentialPromotions.isEmpty());
-        }
-
-        @Override
-        public Movable next() {
-            if (potentialPromotions.isEmpty()) {
-                Movable move = createMove(1L << bitIterator.next());
-
-                if (!bitIterator.hasNext() && index < moveData.size()) {
-                    currentMoveData = moveData.get(index++);
-                    bitIterator = new BitIterator(currentMoveData.moveMap);
-                }
-                return move;
-            } else {
-                return potentialPromotions.pop();
-            }
-        }
-
-        private Movable createMove(long end) {
-            Piece moving = currentMoveData.movingPiece;
-            Status status = currentMoveData.status;
-
-            return switch (status) {
-                case NORMAL -> new NormalMove(moving, currentMoveData.coordinate, end);
-                case CASTLING -> switch (ChessCoordinate.getChessCoordinate(end)) {
-                    case G1 -> WHITE_KING_SIDE_CASTLE;
-                    case G8 -> BLACK_KING_SIDE_CASTLE;
-                    case C1 -> WHITE_QUEEN_SIDE_CASTLE;
-                    case C8 -> BLACK_QUEEN_SIDE_CASTLE;
-                    default -> throw new IllegalArgumentException(
-                            "Ending coordinate is not castling end coordinate");
-                };
-                case PAWN_TAKE_LEFT -> switch (moving) {
-                    case WHITE_PAWN -> new NormalMove(WHITE_PAWN, end >>> 7, end);
-                    case BLACK_PAWN -> new NormalMove(BLACK_PAWN, end << 9, end);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_TAKE_LEFT");
-                };
-                case PAWN_TAKE_RIGHT -> switch (moving) {
-                    case WHITE_PAWN -> new NormalMove(WHITE_PAWN, end >>> 9, end);
-                    case BLACK_PAWN -> new NormalMove(BLACK_PAWN, end << 7, end);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_TAKE_RIGHT");
-                };
-                case PAWN_FORWARD -> switch (moving) {
-                    case WHITE_PAWN -> new NormalMove(WHITE_PAWN, end >>> 8, end);
-                    case BLACK_PAWN -> new NormalMove(BLACK_PAWN, end << 8, end);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_FORWARD");
-                };
-                case PAWN_PUSH -> switch (moving) {
-                    case WHITE_PAWN -> new NormalMove(WHITE_PAWN, end >>> 16, end);
-                    case BLACK_PAWN -> new NormalMove(BLACK_PAWN, end << 16, end);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_PUSH");
-                };
-                case PAWN_PROMOTE_LEFT -> switch (moving) {
-                    case WHITE_PAWN -> makePromotions(end >>> 7, end, WHITE_PAWN, WHITE_KNIGHT,
-                                                      WHITE_BISHOP, WHITE_ROOK, WHITE_QUEEN);
-                    case BLACK_PAWN -> makePromotions(end << 9, end, BLACK_PAWN, BLACK_KNIGHT,
-                                                      BLACK_BISHOP, BLACK_ROOK, BLACK_QUEEN);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_PROMOTE_LEFT");
-                };
-                case PAWN_PROMOTE_RIGHT -> switch (moving) {
-                    case WHITE_PAWN -> makePromotions(end >>> 9, end, WHITE_PAWN, WHITE_KNIGHT,
-                                                      WHITE_BISHOP, WHITE_ROOK, WHITE_QUEEN);
-                    case BLACK_PAWN -> makePromotions(end << 7, end, BLACK_PAWN, BLACK_KNIGHT,
-                                                      BLACK_BISHOP, BLACK_ROOK, BLACK_QUEEN);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_PROMOTE_RIGHT");
-                };
-                case PAWN_PROMOTE -> switch (moving) {
-                    case WHITE_PAWN -> makePromotions(end >>> 8, end, WHITE_PAWN, WHITE_KNIGHT,
-                                                      WHITE_BISHOP, WHITE_ROOK, WHITE_QUEEN);
-                    case BLACK_PAWN -> makePromotions(end << 8, end, BLACK_PAWN, BLACK_KNIGHT,
-                                                      BLACK_BISHOP, BLACK_ROOK, BLACK_QUEEN);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status PAWN_PROMOTE");
-                };
-                case EN_PASSANT_LEFT -> switch (moving) {
-                    case WHITE_PAWN -> new EnPassantMove(WHITE_PAWN, BLACK_PAWN, end >>> 7, end,
-                                                         end >>> 8);
-                    case BLACK_PAWN -> new EnPassantMove(BLACK_PAWN, WHITE_PAWN, end << 9, end,
-                                                         end << 8);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status EN_PASSANT_LEFT");
-                };
-                case EN_PASSANT_RIGHT -> switch (moving) {
-                    case WHITE_PAWN -> new EnPassantMove(WHITE_PAWN, BLACK_PAWN, end >>> 9, end,
-                                                         end >>> 8);
-                    case BLACK_PAWN -> new EnPassantMove(BLACK_PAWN, WHITE_PAWN, end << 7, end,
-                                                         end << 8);
-                    default -> throw new IllegalArgumentException(
-                            "Pawn not passed in with status EN_PASSANT_RIGHT");
-                };
-            };
-        }
-
-        private PromotionMove makePromotions(long start, long end, Piece pawn, Piece knight,
-                                             Piece bishop, Piece rook, Piece queen) {
-            potentialPromotions.offer(new PromotionMove(pawn, knight, start, end));
-            potentialPromotions.offer(new PromotionMove(pawn, bishop, start, end));
-            potentialPromotions.offer(new PromotionMove(pawn, rook, start, end));
-            return new PromotionMove(pawn, queen, start, end);
-        }
-    }
 }
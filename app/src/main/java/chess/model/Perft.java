@@ -0,0 +1,323 @@
+package chess.model;
+
+import chess.ChessCoordinate;
+import chess.model.moves.Move;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaves of the legal move tree of a position to a fixed
+ * depth. The counts of well known positions are the standard test of a
+ * move generator, and counting them is a benchmark of its speed.
+ * <p>
+ * The moves of the root, and of every subtree at least SPLIT_DEPTH
+ * deep, are counted in parallel on a fork join pool, each on its own
+ * copy of the game. The last ply is not made, the leaves below a node
+ * are the size of its move list. Subtree counts may be kept in a hash
+ * table, keyed on the zobrist hash, as the same position is reached by
+ * many move orders.
+ */
+public class Perft {
+
+    /**
+     * Subtrees at least this deep are split into a task per move.
+     */
+    private static final int SPLIT_DEPTH = 4;
+
+    private static final String USAGE =
+            "Usage: Perft [--threads n] [--hash megabytes] [--divide] depth [fen]";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * The table of subtree counts, or null if counts are not kept.
+     */
+    private final PerftTable table;
+
+    /**
+     * Creates a perft counter that uses every processor and no hash table.
+     */
+    public Perft() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * @param threads       the number of threads to count with.
+     * @param hashMegabytes the size of the hash table, or 0 to not keep counts.
+     */
+    public Perft(int threads, int hashMegabytes) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        } else if (hashMegabytes < 0) {
+            throw new IllegalArgumentException("Hash size cannot be negative: " + hashMegabytes);
+        }
+
+        this.pool = new ForkJoinPool(threads);
+        this.table = hashMegabytes == 0 ? null : new PerftTable(hashMegabytes);
+    }
+
+    /**
+     * Count the leaves of the move tree of the given game to the given
+     * depth. The given game is not changed.
+     *
+     * @param game  the game to count from.
+     * @param depth the depth to count to.
+     * @return the number of leaves.
+     */
+    public long count(GameModel game, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative: " + depth);
+        }
+        return pool.invoke(new PerftTask(new GameModel(game), depth));
+    }
+
+    /**
+     * Count the leaves below each move of the given game. The given game
+     * is not changed.
+     *
+     * @param game  the game to count from.
+     * @param depth the depth to count to, including the move.
+     * @return the number of leaves below each move, by the move in
+     * coordinate notation, in the order the moves are generated.
+     */
+    public Map<String, Long> divide(GameModel game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive: " + depth);
+        }
+
+        MoveList moves = game.getLegalMoves();
+        List<PerftTask> tasks = new ArrayList<>(moves.size());
+        for (int idx = 0; idx < moves.size(); idx++) {
+            tasks.add(new PerftTask(childOf(game, moves.get(idx)), depth - 1));
+        }
+        tasks.forEach(pool::execute);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int idx = 0; idx < moves.size(); idx++) {
+            counts.put(toCoordinateNotation(moves.get(idx)), tasks.get(idx).join());
+        }
+        return counts;
+    }
+
+    /**
+     * Stop the threads of this counter.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return a copy of the given game, after the given move is made.
+     */
+    private static GameModel childOf(GameModel game, int move) {
+        GameModel child = new GameModel(game);
+        child.move(move);
+        return child;
+    }
+
+    /**
+     * @return the move as its starting and ending square, followed by the
+     * promoted piece, such as e7e8q.
+     */
+    private static String toCoordinateNotation(int move) {
+        String result = ChessCoordinate.getChessCoordinate(Move.getFrom(move)).toString() +
+                ChessCoordinate.getChessCoordinate(Move.getTo(move));
+        if (Move.isPromotion(move)) {
+            result += Move.getPromotedPiece(move).getStringRep().toLowerCase();
+        }
+        return result;
+    }
+
+    /**
+     * Count the leaves of the given game on this thread.
+     */
+    private long countSequential(GameModel game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        if (depth == 1) {
+            return game.getLegalMoves().size();
+        }
+
+        // The table is probed first, so a hit does not generate any move
+        long hash = game.getZobristHash();
+        if (table != null) {
+            long count = table.probe(hash, depth);
+            if (count != PerftTable.NO_ENTRY) {
+                return count;
+            }
+        }
+
+        MoveList moves = game.getLegalMoves();
+        long count = 0;
+        for (int idx = 0; idx < moves.size(); idx++) {
+            game.move(moves.get(idx));
+            count += countSequential(game, depth - 1);
+            game.undoLastMove();
+        }
+
+        if (table != null) {
+            table.store(hash, depth, count);
+        }
+        return count;
+    }
+
+    /**
+     * Counts a subtree, deep subtrees fork a task per move.
+     */
+    private class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GameModel game;
+        private final int depth;
+
+        private PerftTask(GameModel game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth < SPLIT_DEPTH) {
+                return countSequential(game, depth);
+            }
+
+            long hash = game.getZobristHash();
+            if (table != null) {
+                long count = table.probe(hash, depth);
+                if (count != PerftTable.NO_ENTRY) {
+                    return count;
+                }
+            }
+
+            MoveList moves = game.getLegalMoves();
+            List<PerftTask> tasks = new ArrayList<>(moves.size());
+            for (int idx = 0; idx < moves.size(); idx++) {
+                tasks.add(new PerftTask(childOf(game, moves.get(idx)), depth - 1));
+            }
+
+            long count = 0;
+            for (PerftTask task : invokeAll(tasks)) {
+                count += task.join();
+            }
+
+            if (table != null) {
+                table.store(hash, depth, count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * A table of subtree counts. Every entry is two longs, the count and
+     * depth packed together, and that data xor the hash. A probe only
+     * accepts an entry if the two longs give back the probed hash, so an
+     * entry torn by two racing stores is never used, and the table needs
+     * no locks.
+     */
+    private static class PerftTable {
+
+        private static final long NO_ENTRY = -1L;
+
+        private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private static final int DEPTH_SHIFT = 56;
+        private static final long COUNT_MASK = (1L << DEPTH_SHIFT) - 1;
+
+        private final long[] slots;
+        private final int indexMask;
+
+        private PerftTable(int megabytes) {
+            long maxEntries = ((long) megabytes << 20) / (2 * Long.BYTES);
+            int numEntries = (int) Long.highestOneBit(Math.min(maxEntries, 1L << 29));
+
+            this.slots = new long[2 * numEntries];
+            this.indexMask = numEntries - 1;
+        }
+
+        /**
+         * @return the count of the given position to the given depth, or
+         * NO_ENTRY if it is not in this table.
+         */
+        private long probe(long hash, int depth) {
+            int index = 2 * ((int) hash & indexMask);
+            long data = (long) SLOTS.getOpaque(slots, index + 1);
+            long key = (long) SLOTS.getOpaque(slots, index);
+            if (data == 0 || (key ^ data) != hash || data >>> DEPTH_SHIFT != depth) {
+                return NO_ENTRY;
+            }
+            return data & COUNT_MASK;
+        }
+
+        private void store(long hash, int depth, long count) {
+            int index = 2 * ((int) hash & indexMask);
+            long data = (long) depth << DEPTH_SHIFT | count;
+            SLOTS.setOpaque(slots, index, hash ^ data);
+            SLOTS.setOpaque(slots, index + 1, data);
+        }
+    }
+
+    /**
+     * Count the leaves of a position from the command line, and print the
+     * count, the time it took, and the nodes per second.
+     *
+     * @param args [--threads n] [--hash megabytes] [--divide] depth [fen]
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = 0;
+        boolean divide = false;
+
+        int argIdx = 0;
+        try {
+            while (argIdx < args.length && args[argIdx].startsWith("--")) {
+                switch (args[argIdx]) {
+                    case "--threads" -> threads = Integer.parseInt(args[++argIdx]);
+                    case "--hash" -> hashMegabytes = Integer.parseInt(args[++argIdx]);
+                    case "--divide" -> divide = true;
+                    default -> throw new IllegalArgumentException(
+                            "Unknown option: " + args[argIdx]);
+                }
+                argIdx++;
+            }
+            if (argIdx == args.length) {
+                throw new IllegalArgumentException("No depth given");
+            }
+            int depth = Integer.parseInt(args[argIdx++]);
+            GameModel game = argIdx == args.length ? new GameModel() : new GameModel(
+                    String.join(" ", Arrays.copyOfRange(args, argIdx, args.length)));
+
+            Perft perft = new Perft(threads, hashMegabytes);
+            long start = System.nanoTime();
+            long nodes = 0;
+            if (divide) {
+                for (Map.Entry<String, Long> entry : perft.divide(game, depth).entrySet()) {
+                    System.out.printf("%s: %d\n", entry.getKey(), entry.getValue());
+                    nodes += entry.getValue();
+                }
+                System.out.println();
+            } else {
+                nodes = perft.count(game, depth);
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            perft.shutdown();
+
+            System.out.printf("Nodes searched: %d\n", nodes);
+            System.out.printf("Time: %dms (%,d nodes/sec)\n", millis, nodes * 1_000 / millis);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}
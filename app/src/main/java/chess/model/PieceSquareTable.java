@@ -0,0 +1,90 @@
+package chess.model;
+
+import chess.model.pieces.Piece;
+
+import static chess.model.chessai.Constants.*;
+
+/**
+ * The material and square value of every piece on every square, for the
+ * middle game and the endgame. Both values are packed into one int, the
+ * middle game value in the upper 16 bits and the endgame value in the
+ * lower 16 bits, so the two are added and subtracted together. Values
+ * are from whites perspective, black pieces have negative values.
+ */
+public abstract class PieceSquareTable {
+
+    private static final int[][] SCORES = makeScoreTable();
+
+    private static int[][] makeScoreTable() {
+        int[][] result = new int[Piece.values().length][64];
+
+        for (Piece piece : Piece.values()) {
+            if (piece == Piece.EMPTY) {
+                continue;
+            }
+
+            int material = switch (piece) {
+                case WHITE_PAWN, BLACK_PAWN -> PAWN_SCORE;
+                case WHITE_KNIGHT, BLACK_KNIGHT -> KNIGHT_SCORE;
+                case WHITE_BISHOP, BLACK_BISHOP -> BISHOP_SCORE;
+                case WHITE_ROOK, BLACK_ROOK -> ROOK_SCORE;
+                case WHITE_QUEEN, BLACK_QUEEN -> QUEEN_SCORE;
+                default -> 0;
+            };
+            int[] midgameTable = switch (piece) {
+                case WHITE_PAWN, BLACK_PAWN -> PAWN_VALUE_MAP;
+                case WHITE_KNIGHT, BLACK_KNIGHT -> KNIGHT_VALUE_MAP;
+                case WHITE_BISHOP, BLACK_BISHOP -> BISHOP_VALUE_MAP;
+                case WHITE_ROOK, BLACK_ROOK -> ROOK_VALUE_MAP;
+                case WHITE_QUEEN, BLACK_QUEEN -> QUEEN_VALUE_MAP;
+                default -> KING_VALUE_MAP;
+            };
+            int[] endgameTable = switch (piece) {
+                case WHITE_KING, BLACK_KING -> KING_ENDGAME_VALUE_MAP;
+                default -> midgameTable;
+            };
+
+            boolean isWhite = piece.getColor() == GameModel.WHITE;
+            for (int square = 0; square < 64; square++) {
+                // Black reads the tables upside down
+                int index = isWhite ? square : square ^ 56;
+                int score = pack(material + midgameTable[index], material + endgameTable[index]);
+                result[piece.getUniqueIdx()][square] = isWhite ? score : -score;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param midgame the middle game value.
+     * @param endgame the endgame value.
+     * @return the two values packed into one int.
+     */
+    public static int pack(int midgame, int endgame) {
+        return (midgame << 16) + endgame;
+    }
+
+    /**
+     * @return the middle game value of the packed score.
+     */
+    public static int getMidgame(int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    /**
+     * @return the endgame value of the packed score.
+     */
+    public static int getEndgame(int score) {
+        return (short) score;
+    }
+
+    /**
+     * @param pieceIdx the unique index of the piece.
+     * @param square   the one dimensional index of the square.
+     * @return the packed score of the piece on the square.
+     */
+    public static int getScore(int pieceIdx, int square) {
+        return SCORES[pieceIdx][square];
+    }
+}
@@ -2,7 +2,6 @@ package chess.model;
 
 import chess.ChessCoordinate;
 import chess.model.pieces.Piece;
-import chess.util.FastMap;
 
 import java.util.Random;
 
@@ -68,7 +67,7 @@ public abstract class Zobrist {
         int addedEnPassantTarget =
                 enPassant == null ? 16 : enPassant.getFile() + (enPassant.getRank() == 2 ? 0 : 8);
         stateHashValue ^= enPassantCoordTable[addedEnPassantTarget];
-        int addedCastlingData = (int) (game.getGameState().getMap() & 0b1111L);
+        int addedCastlingData = (int) (game.getGameState() & 0b1111L);
         stateHashValue ^= castlingHashTable[addedCastlingData];
         int addedSideToMove = game.getTurn() == WHITE ? 0 : 1;
         stateHashValue ^= sideToMove[addedSideToMove];
@@ -80,20 +79,24 @@ public abstract class Zobrist {
         return hashValue ^ zobristHashTable[coordinate.getOndDimIndex()][piece.getUniqueIdx()];
     }
 
-    public static long getGameStateHash(FastMap gameState) {
+    public static long flipPiece(int pieceIdx, int square, long hashValue) {
+        return hashValue ^ zobristHashTable[square][pieceIdx];
+    }
+
+    public static long getGameStateHash(long gameState) {
         long hashValue = 0x0L;
 
-        int currentCastlingData = (int) (gameState.getMap() & 0b1111L);
+        int currentCastlingData = (int) (gameState & 0b1111L);
         hashValue ^= castlingHashTable[currentCastlingData];
 
         ChessCoordinate enPassant = ChessCoordinate.getChessCoordinate(
-                (int) gameState.getMap() >> 7);
+                (int) (gameState >> 7) & 0b111111);
         enPassant = enPassant == A1 ? null : enPassant;
         int addedEnPassantTarget =
                 enPassant == null ? 16 : enPassant.getFile() + (enPassant.getRank() == 2 ? 0 : 8);
         hashValue ^= enPassantCoordTable[addedEnPassantTarget];
 
-        int currentSideToMove = gameState.isMarked(4) ? 0 : 1;
+        int currentSideToMove = (gameState & 0b10000L) != 0 ? 0 : 1;
         hashValue ^= sideToMove[currentSideToMove];
 
         return hashValue;
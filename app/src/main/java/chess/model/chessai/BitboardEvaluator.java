@@ -0,0 +1,97 @@
+package chess.model.chessai;
+
+import chess.model.BoardModel;
+import chess.model.GameModel;
+import chess.model.MoveGenerator;
+import chess.model.PieceSquareTable;
+
+import static chess.model.GameModel.BLACK;
+import static chess.model.GameModel.WHITE;
+import static chess.model.chessai.Constants.*;
+import static chess.model.pieces.Piece.*;
+
+/**
+ * An evaluator that adds the mobility of every piece, and the files of
+ * every rook, to the material, square and pawn structure scores of the
+ * PositionEvaluator. Every term is computed from the piece maps of the
+ * board, with the attack tables of the MoveGenerator, without looking
+ * up the piece of any square.
+ */
+public class BitboardEvaluator extends PositionEvaluator {
+
+    public BitboardEvaluator(GameModel game) {
+        super(game);
+    }
+
+    @Override
+    protected int evaluatePacked(BoardModel board) {
+        return super.evaluatePacked(board) + evaluatePieces(board, true) -
+                evaluatePieces(board, false);
+    }
+
+    /**
+     * Evaluates the mobility of the knights, bishops, rooks and queens of
+     * the given color, and the files its rooks are on.
+     *
+     * @return the packed score of the pieces of the given color.
+     */
+    private static int evaluatePieces(BoardModel board, boolean isWhite) {
+        long occupied = board.getOccupancyMap();
+        long friendlyPawns = board.getPieceMap(isWhite ? WHITE_PAWN : BLACK_PAWN);
+        long enemyPawns = board.getPieceMap(isWhite ? BLACK_PAWN : WHITE_PAWN);
+        long available = ~board.getOccupancyMap(isWhite ? WHITE : BLACK) &
+                ~getPawnAttacks(enemyPawns, !isWhite);
+        int score = 0;
+
+        long knights = board.getPieceMap(isWhite ? WHITE_KNIGHT : BLACK_KNIGHT);
+        for (; knights != 0; knights &= knights - 1) {
+            long attacks = MoveGenerator.getKnightAttacks(Long.numberOfTrailingZeros(knights));
+            score += getMobility(attacks & available, KNIGHT_MOBILITY_BASE,
+                                 KNIGHT_MOBILITY_MIDGAME, KNIGHT_MOBILITY_ENDGAME);
+        }
+
+        long bishops = board.getPieceMap(isWhite ? WHITE_BISHOP : BLACK_BISHOP);
+        for (; bishops != 0; bishops &= bishops - 1) {
+            long attacks = MoveGenerator.getBishopAttacks(Long.numberOfTrailingZeros(bishops),
+                                                          occupied);
+            score += getMobility(attacks & available, BISHOP_MOBILITY_BASE,
+                                 BISHOP_MOBILITY_MIDGAME, BISHOP_MOBILITY_ENDGAME);
+        }
+
+        long rooks = board.getPieceMap(isWhite ? WHITE_ROOK : BLACK_ROOK);
+        for (; rooks != 0; rooks &= rooks - 1) {
+            int square = Long.numberOfTrailingZeros(rooks);
+            long attacks = MoveGenerator.getRookAttacks(square, occupied);
+            score += getMobility(attacks & available, ROOK_MOBILITY_BASE,
+                                 ROOK_MOBILITY_MIDGAME, ROOK_MOBILITY_ENDGAME);
+
+            long file = FILE_A << (square & 7);
+            if ((file & friendlyPawns) == 0) {
+                score += (file & enemyPawns) == 0 ?
+                        PieceSquareTable.pack(ROOK_OPEN_FILE_MIDGAME, ROOK_OPEN_FILE_ENDGAME) :
+                        PieceSquareTable.pack(ROOK_SEMI_OPEN_FILE_MIDGAME,
+                                              ROOK_SEMI_OPEN_FILE_ENDGAME);
+            }
+        }
+
+        long queens = board.getPieceMap(isWhite ? WHITE_QUEEN : BLACK_QUEEN);
+        for (; queens != 0; queens &= queens - 1) {
+            int square = Long.numberOfTrailingZeros(queens);
+            long attacks = MoveGenerator.getRookAttacks(square, occupied) |
+                    MoveGenerator.getBishopAttacks(square, occupied);
+            score += getMobility(attacks & available, QUEEN_MOBILITY_BASE,
+                                 QUEEN_MOBILITY_MIDGAME, QUEEN_MOBILITY_ENDGAME);
+        }
+
+        return score;
+    }
+
+    /**
+     * @return the packed mobility score of a piece that can move to the
+     * given squares.
+     */
+    private static int getMobility(long moves, int base, int midgame, int endgame) {
+        int mobility = Long.bitCount(moves) - base;
+        return PieceSquareTable.pack(mobility * midgame, mobility * endgame);
+    }
+}
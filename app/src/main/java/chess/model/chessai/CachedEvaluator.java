@@ -0,0 +1,79 @@
+package chess.model.chessai;
+
+import chess.model.GameModel;
+import chess.model.moves.Movable;
+
+import java.util.List;
+
+/**
+ * An evaluator that remembers the scores of another evaluator. The same
+ * position is reached by many move orders, and its transposition table
+ * entry may be replaced long before it is reached again, so evaluateScore
+ * first looks for the position in a fixed size cache, keyed on its zobrist
+ * hash. The cache is a ScoreTable, so it can be shared by every search
+ * thread without locks. Every other method is passed to the evaluator.
+ */
+public class CachedEvaluator implements Evaluator {
+
+    /**
+     * The size of the cache used when no size is given.
+     */
+    public static final int DEFAULT_SIZE_MB = 4;
+
+    /**
+     * The evaluator whose scores are cached.
+     */
+    private final Evaluator evaluator;
+
+    private final ScoreTable cache;
+
+    /**
+     * Creates a cache of the given evaluator, that uses at most the given
+     * number of megabytes. The number of slots is the largest power of two
+     * that fits.
+     *
+     * @param evaluator the evaluator whose scores are cached.
+     * @param megabytes the maximum size of the cache in megabytes.
+     */
+    public CachedEvaluator(Evaluator evaluator, int megabytes) {
+        this.evaluator = evaluator;
+        this.cache = new ScoreTable(megabytes);
+    }
+
+    @Override
+    public Evaluation evaluate(GameModel game) {
+        return evaluator.evaluate(game);
+    }
+
+    /**
+     * Returns the score of the given game, from the cache if it was
+     * evaluated before.
+     *
+     * @param game the game to evaluate.
+     * @return the score of this game, positive if white is better.
+     */
+    @Override
+    public int evaluateScore(GameModel game) {
+        long hash = game.getZobristHash();
+        long entry = cache.probe(hash);
+        if (entry != ScoreTable.NO_ENTRY) {
+            return ScoreTable.getScore(entry);
+        }
+
+        int score = evaluator.evaluateScore(game);
+        cache.store(hash, score);
+        return score;
+    }
+
+    @Override
+    public List<Movable> getSortedMoves(GameModel game, Movable hashMove) {
+        return evaluator.getSortedMoves(game, hashMove);
+    }
+
+    /**
+     * @return the evaluator whose scores are cached.
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+}
@@ -1,39 +1,131 @@
 package chess.model.chessai;
 
+import chess.model.BoardModel;
 import chess.model.GameModel;
+import chess.model.MoveGenerator;
+import chess.model.MoveList;
 import chess.model.moves.Movable;
-import chess.util.MaxSizeLRUCache;
+import chess.model.moves.Move;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
-import static chess.model.GameModel.IN_PROGRESS;
-import static chess.model.GameModel.WHITE;
+import static chess.model.GameModel.*;
 import static chess.model.chessai.Evaluation.*;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static chess.model.chessai.TranspositionTable.NO_ENTRY;
+import static chess.model.pieces.Piece.*;
 
 /**
  * This class represents the computer player in a chess algorithm.
  * This class takes an evaluator, and uses the mini-max algorithm to
  * find the best move.
+ * <p>
+ * When more than one thread is used, every extra thread is a helper
+ * that runs its own iterative deepening search on a copy of the game.
+ * All threads share the transposition table, so the helpers fill the
+ * table with results the main thread can use, and only the result of
+ * the main thread is returned.
+ * <p>
+ * After a move, the AI may ponder: it searches the position after the
+ * reply it expects, while the opponent is thinking. On a ponder hit the
+ * same search continues with its clock started, otherwise it is stopped.
  */
 public class ChessAI {
 
+    /**
+     * The deepest iteration any search thread will start.
+     */
+    private static final int MAX_SEARCH_DEPTH = 64;
+
+    /**
+     * The first depth that is searched with an aspiration window.
+     */
+    private static final int ASPIRATION_MIN_DEPTH = 3;
+
+    /**
+     * The distance from the previous score to each side of the first
+     * aspiration window.
+     */
+    private static final int ASPIRATION_WINDOW = 50;
+
+    /**
+     * Once the aspiration window grows past this distance the search
+     * uses a full window.
+     */
+    private static final int MAX_ASPIRATION_WINDOW = 1_000;
+
+    /**
+     * The score of a position where the player to move is checkmated. A
+     * mate that is found deeper in the search is one point closer to zero
+     * per ply, so shorter mates are preferred.
+     */
+    private static final int MATE_SCORE = 10_000;
+
+    /**
+     * Scores further from zero than this are mate scores, and are never
+     * pruned by a static evaluation.
+     */
+    private static final int MATE_THRESHOLD = 9_000;
+
+    /**
+     * The score of a drawn position, a stalemate or a repetition.
+     */
+    private static final int DRAW_SCORE = 0;
+
+    /**
+     * A score larger than any score the search can return.
+     */
+    private static final int INFINITE_SCORE = 30_000;
+
+    /**
+     * The shallowest depth a null move is tried at, and how much
+     * shallower the search after the null move is.
+     */
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+
+    /**
+     * The shallowest depth, and the first move index, that late move
+     * reductions are applied at.
+     */
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVE_INDEX = 3;
+
+    /**
+     * The margin added to the static evaluation by futility pruning,
+     * for each remaining depth it is applied at.
+     */
+    private static final int[] FUTILITY_MARGINS = {0, 200, 350};
+
+    /**
+     * The deepest depth reverse futility pruning is applied at, and
+     * the margin per remaining depth.
+     */
+    private static final int REVERSE_FUTILITY_MAX_DEPTH = 3;
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+
+    /**
+     * The number of nodes between two checks of the hard time limit,
+     * must be a power of two.
+     */
+    private static final int TIME_CHECK_INTERVAL = 2048;
+
     /**
      * This table stores a position hash, and maps it to the found
      * evaluation. This may result in speed up due to transpositions
      * to the same position.
      */
-    private final Map<Long, Evaluation> transpositionTable;
+    private final TranspositionTable transpositionTable;
 
     /**
      * The evaluator this class uses to evaluate positions, and moves.
+     * Scores are cached, unless the given evaluator already caches them.
      */
     private final Evaluator evaluator;
 
@@ -45,7 +137,45 @@ public class ChessAI {
     private final boolean useTranspositionTable;
     private final boolean useIterativeDeepening;
 
-    private long positionsEvaluated;
+    /**
+     * The number of threads that search at the same time.
+     */
+    private final int numThreads;
+
+    /**
+     * The threads the helpers run on. They are kept between searches,
+     * and are null when only one thread is used.
+     */
+    private final ExecutorService helperExecutor;
+
+    /**
+     * The nodes every thread searched, each thread adds its nodes once
+     * every TIME_CHECK_INTERVAL nodes.
+     */
+    private final LongAdder positionsEvaluated;
+
+    /**
+     * Receives the statistics of every iteration of the main thread, or null.
+     */
+    private volatile SearchListener searchListener;
+
+    /**
+     * The result of the last search that was not stopped.
+     */
+    private volatile Evaluation lastEvaluation;
+
+    /**
+     * Set when every search thread should stop searching.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Switches for each forward pruning technique, all are on by default.
+     */
+    private boolean useNullMovePruning = true;
+    private boolean useLateMoveReductions = true;
+    private boolean useFutilityPruning = true;
+    private boolean useReverseFutilityPruning = true;
 
     /**
      * Simple constructor that makes a new ChessAI with the given
@@ -56,16 +186,107 @@ public class ChessAI {
      */
     public ChessAI(Evaluator evaluator, GameModel game, boolean useIterativeDeepening,
                    boolean useTranspositionTable) {
-        this.evaluator = evaluator;
+        this(evaluator, game, useIterativeDeepening, useTranspositionTable,
+             TranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Constructor that makes a new ChessAI with the given evaluator
+     * and game, and a transposition table of the given size.
+     *
+     * @param evaluator   the evaluator this AI uses.
+     * @param game        the game this AI is in.
+     * @param tableSizeMB the size of the transposition table in megabytes.
+     */
+    public ChessAI(Evaluator evaluator, GameModel game, boolean useIterativeDeepening,
+                   boolean useTranspositionTable, int tableSizeMB) {
+        this(evaluator, game, useIterativeDeepening, useTranspositionTable, tableSizeMB, 1);
+    }
+
+    /**
+     * Constructor that makes a new ChessAI that searches with the given
+     * number of threads. Extra threads are only used with iterative
+     * deepening. The evaluator is shared by every thread.
+     *
+     * @param evaluator   the evaluator this AI uses.
+     * @param game        the game this AI is in.
+     * @param tableSizeMB the size of the transposition table in megabytes.
+     * @param numThreads  the number of threads to search with.
+     */
+    public ChessAI(Evaluator evaluator, GameModel game, boolean useIterativeDeepening,
+                   boolean useTranspositionTable, int tableSizeMB, int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " +
+                                                       numThreads);
+        }
+        this.evaluator = evaluator instanceof CachedEvaluator ? evaluator :
+                new CachedEvaluator(evaluator, CachedEvaluator.DEFAULT_SIZE_MB);
         this.game = game;
         this.useIterativeDeepening = useIterativeDeepening;
         this.useTranspositionTable = useTranspositionTable;
-        this.transpositionTable = new MaxSizeLRUCache<>(1_000_000);
-        positionsEvaluated = 0;
+        this.transpositionTable = new TranspositionTable(tableSizeMB);
+        this.numThreads = numThreads;
+        this.helperExecutor = numThreads == 1 ? null :
+                Executors.newFixedThreadPool(numThreads - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "ChessAI helper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.positionsEvaluated = new LongAdder();
+    }
+
+    /**
+     * Set the listener that receives the statistics of every finished
+     * iteration of the main search thread.
+     *
+     * @param searchListener the listener, or null to not collect statistics.
+     */
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
+    /**
+     * Set if the search may pass the turn, and cut off when the position
+     * is still good enough for the player that passed.
+     *
+     * @param useNullMovePruning if null move pruning is used.
+     */
+    public void setNullMovePruning(boolean useNullMovePruning) {
+        this.useNullMovePruning = useNullMovePruning;
     }
 
     /**
-     * Returns the best move to the given depth. This does not use iterative deepening.
+     * Set if quiet moves late in the move order are searched with a
+     * reduced depth first.
+     *
+     * @param useLateMoveReductions if late move reductions are used.
+     */
+    public void setLateMoveReductions(boolean useLateMoveReductions) {
+        this.useLateMoveReductions = useLateMoveReductions;
+    }
+
+    /**
+     * Set if quiet moves are skipped near the leaves, when the static
+     * evaluation is too far below alpha for them to matter.
+     *
+     * @param useFutilityPruning if futility pruning is used.
+     */
+    public void setFutilityPruning(boolean useFutilityPruning) {
+        this.useFutilityPruning = useFutilityPruning;
+    }
+
+    /**
+     * Set if a node near the leaves cuts off without searching, when the
+     * static evaluation is far enough above beta.
+     *
+     * @param useReverseFutilityPruning if reverse futility pruning is used.
+     */
+    public void setReverseFutilityPruning(boolean useReverseFutilityPruning) {
+        this.useReverseFutilityPruning = useReverseFutilityPruning;
+    }
+
+    /**
+     * Returns the best move to the given depth, without a time limit.
      *
      * @param depth the depth to search to
      * @return the best move in the position
@@ -74,234 +295,702 @@ public class ChessAI {
         return getBestMove(depth, 0);
     }
 
+
     /**
      * Search and find the best move in the current position.
      *
-     * @param minDepth   the depth to search to (not used if using iterative deepening)
-     * @param timeCutoff the max time to search for.
+     * @param minDepth   the depth that is always searched, unless the hard limit is reached.
+     * @param timeCutoff the max time to search for, or 0 to search exactly to minDepth.
      * @return the best move to DEPTH, according to the evaluator.
      */
     public Movable getBestMove(int minDepth, int timeCutoff) {
         GameModel currentGame = new GameModel(this.game);
-        long nanoTimeCutoff = NANOSECONDS.convert(timeCutoff, MILLISECONDS);
-
-        Evaluation bestEvalToLatestDepth = null;
-
-        if (!useIterativeDeepening) {
-            bestEvalToLatestDepth = miniMax(currentGame, new AlphaBeta(), minDepth);
-        } else {
-            ExecutorService executor = Executors.newSingleThreadExecutor();
-            // Do minimax iteratively up to minDepth
-            long start = System.nanoTime();
-            for (int depth = 1; depth <= minDepth; depth++) {
-                bestEvalToLatestDepth = miniMax(currentGame, new AlphaBeta(), depth);
+        if (timeCutoff <= 0) {
+            return search(currentGame, minDepth, minDepth, TimeManager.unlimited());
+        }
+        return search(currentGame, minDepth, MAX_SEARCH_DEPTH,
+                      TimeManager.forMoveTime(timeCutoff));
+    }
+
+    /**
+     * Search and find the best move in the current position, for a game
+     * played with a clock.
+     *
+     * @param remaining the time left on the clock in milliseconds.
+     * @param increment the time added to the clock after every move in milliseconds.
+     * @param movesToGo the moves left until the next time control, or 0 if unknown.
+     * @return the best move, according to the evaluator.
+     */
+    public Movable getBestMove(long remaining, long increment, int movesToGo) {
+        return search(new GameModel(this.game), 1, MAX_SEARCH_DEPTH,
+                      TimeManager.forTimeControl(remaining, increment, movesToGo));
+    }
+
+    /**
+     * Search the position after the expected reply of the opponent, before
+     * the opponent has made it. The given time manager must be pondering,
+     * the search runs without a limit until either ponderHit is called on
+     * it, after which its limits apply, or stop is called on it. The
+     * position must be a copy of the game, taken before the opponent can
+     * move, since the game may change while this search runs.
+     *
+     * @param position      a copy of the game, owned by this search.
+     * @param expectedReply the move the opponent is expected to make.
+     * @param timeManager   the time manager of the search after the reply.
+     * @return the best move after the reply, or null if the search was stopped
+     * or the reply is not legal.
+     */
+    public Movable ponder(GameModel position, Movable expectedReply, TimeManager timeManager) {
+        int reply = new MoveGenerator(position).getLegalMove(
+                TranspositionTable.packMove(expectedReply));
+        if (reply == Move.NO_MOVE) {
+            return null;
+        }
+
+        position.move(reply);
+        if (position.getGameOverStatus() != IN_PROGRESS) {
+            return null;
+        }
+
+        Movable bestMove = search(position, 1, MAX_SEARCH_DEPTH, timeManager);
+        return timeManager.isStopped() ? null : bestMove;
+    }
+
+    /**
+     * @return the reply the last search expects to its best move, or null if it has none.
+     */
+    public Movable getPonderMove() {
+        Evaluation evaluation = lastEvaluation;
+        if (evaluation == null || evaluation.getNext() == null) {
+            return null;
+        }
+        return evaluation.getNext().getMove();
+    }
+
+    /**
+     * Search the current position one ply deeper each iteration. No new
+     * iteration is started past maxDepth, or once minDepth is finished
+     * and the soft limit of the time manager is reached. The search is
+     * aborted once the hard limit is reached, and then returns the move
+     * of the deepest finished iteration.
+     *
+     * @param currentGame the position to search, owned by this search.
+     * @param minDepth    the depth that is searched regardless of the soft limit.
+     * @param maxDepth    the deepest iteration that is started.
+     * @param timeManager the time manager of this search.
+     * @return the best move, according to the evaluator.
+     */
+    private Movable search(GameModel currentGame, int minDepth, int maxDepth,
+                           TimeManager timeManager) {
+        positionsEvaluated.reset();
+        transpositionTable.newSearch();
+        stopped = false;
+        if (!timeManager.isPondering()) {
+            timeManager.start();
+        }
+
+        // Start the helpers, odd helpers search one ply ahead of even helpers
+        List<Future<?>> helpers = new ArrayList<>(numThreads - 1);
+        if (useIterativeDeepening && helperExecutor != null) {
+            for (int helperId = 1; helperId < numThreads; helperId++) {
+                helpers.add(helperExecutor.submit(
+                        new IterativeDeepener(new GameModel(currentGame), helperId % 2, null)));
             }
-            long end = System.nanoTime();
+        }
 
-            // Continue search starting at minDepth + 1, until timeout
-            IterativeDeepener deepener = new IterativeDeepener(bestEvalToLatestDepth, currentGame,
-                                                               minDepth);
-            positionsEvaluated = 0;
-            Future<?> future = executor.submit(deepener);
+        IterativeDeepener deepener = new IterativeDeepener(currentGame, 0, timeManager);
+        try {
+            Movable previousMove = null;
+            for (int depth = useIterativeDeepening ? 1 : minDepth; depth <= maxDepth; depth++) {
+                deepener.runToDepth(depth);
+
+                SearchListener listener = searchListener;
+                if (listener != null) {
+                    listener.iterationFinished(deepener.createStats(depth, timeManager));
+                }
 
+                // An unstable best move is given more time
+                Movable bestMove = deepener.bestEval.getMove();
+                if (previousMove != null && !previousMove.equals(bestMove)) {
+                    timeManager.extendSoftLimit();
+                }
+                previousMove = bestMove;
+
+                if (depth >= minDepth && timeManager.isSoftLimitReached()) {
+                    break;
+                }
+            }
+        } catch (SearchAbortedException ignored) {
+        }
+        stopSearch(helpers);
+
+        Evaluation bestEvalToLatestDepth = deepener.bestEval;
+        if (!timeManager.isStopped()) {
+            lastEvaluation = bestEvalToLatestDepth;
+        }
+        return bestEvalToLatestDepth == null ? null : bestEvalToLatestDepth.getMove();
+    }
+
+    /**
+     * Stop every search thread, and wait for them to finish.
+     *
+     * @param helpers the futures of the helper threads.
+     */
+    private void stopSearch(List<Future<?>> helpers) {
+        stopped = true;
+        for (Future<?> helper : helpers) {
             try {
-                future.get(nanoTimeCutoff - end + start, NANOSECONDS);
-            } catch (TimeoutException ignored) {
+                helper.get();
             } catch (InterruptedException | ExecutionException ex) {
                 ex.printStackTrace();
             }
-            future.cancel(true);
-            deepener.kill();
-            executor.shutdown();
-            bestEvalToLatestDepth = deepener.bestEval;
         }
-        synchronized (transpositionTable) {
-            System.out.printf("%10d\t|\t%6d\t|\t%s\n", positionsEvaluated,
-                              transpositionTable.size(), bestEvalToLatestDepth);
+    }
+
+    /**
+     * @return the given score from whites perspective, from the
+     * perspective of the player to move.
+     */
+    private static int toSideToMove(GameModel game, int whiteScore) {
+        return game.getTurn() == WHITE ? whiteScore : -whiteScore;
+    }
+
+    /**
+     * Mate scores are stored in the transposition table as the distance
+     * from the stored position, instead of from the root.
+     *
+     * @param score the score relative to the root.
+     * @param ply   the distance of the position from the root.
+     * @return the score to store in the transposition table.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score + ply;
+        } else if (score <= -MATE_THRESHOLD) {
+            return score - ply;
         }
-        return bestEvalToLatestDepth == null ? null : bestEvalToLatestDepth.getMove();
+        return score;
     }
 
     /**
-     * Get the evaluation of the current position to the given depth.
-     * This is an implementation of the minimax algorithm to simulate
-     * optimal play by both players.
+     * The inverse of toTableScore.
      *
-     * @param alphaBeta the AlphaBeta object used for pruning.
-     * @param depth     the depth to search to, each depth is 1 ply.
-     * @return the Evaluation of the current position assuming optimal play.
-     */
-    private Evaluation miniMax(GameModel game, AlphaBeta alphaBeta, int depth) {
-        if (depth == 0 || game.getGameOverStatus() != IN_PROGRESS) {
-            positionsEvaluated++;
-            return evaluator.evaluate(game);
+     * @param score the score from the transposition table.
+     * @param ply   the distance of the position from the root.
+     * @return the score relative to the root.
+     */
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score - ply;
+        } else if (score <= -MATE_THRESHOLD) {
+            return score + ply;
         }
+        return score;
+    }
+
+    /**
+     * @return if the player to move has a piece other than pawns and the king.
+     */
+    private static boolean hasNonPawnMaterial(GameModel game) {
+        BoardModel board = game.getBoard();
+        if (game.getTurn() == WHITE) {
+            return (board.getPieceMap(WHITE_QUEEN) | board.getPieceMap(WHITE_ROOK) |
+                    board.getPieceMap(WHITE_BISHOP) | board.getPieceMap(WHITE_KNIGHT)) != 0;
+        }
+        return (board.getPieceMap(BLACK_QUEEN) | board.getPieceMap(BLACK_ROOK) |
+                board.getPieceMap(BLACK_BISHOP) | board.getPieceMap(BLACK_KNIGHT)) != 0;
+    }
+
+    /**
+     * A single search thread. Every thread owns its own game, move
+     * orderer and principal variation, and shares the transposition
+     * table with the other threads.
+     * <p>
+     * The search itself is a negamax search on primitive int scores,
+     * where every score is from the perspective of the player to move.
+     * An Evaluation is only created for the root, once an iteration is
+     * finished.
+     */
+    private class IterativeDeepener implements Runnable {
+
+        private final GameModel game;
+        private final int startDepth;
+
+        /**
+         * The time manager that may abort this thread, or null for a
+         * helper, which only stops with the main thread.
+         */
+        private final TimeManager timeManager;
+
+        /**
+         * The nodes this thread searched since it started, and the
+         * statistics of the current iteration.
+         */
+        private long nodes;
+        private long iterationStartNodes;
+        private long previousIterationNodes;
+        private long quiescenceNodes;
+        private long transpositionProbes;
+        private long transpositionHits;
+        private long transpositionCutoffs;
+        private final long[] cutoffHistogram;
+        private int selDepth;
+
+        /**
+         * The move orderer of this thread, it is kept between iterations.
+         */
+        private final MoveOrderer moveOrderer;
+
+        /**
+         * The triangular principal variation table. Row ply holds the
+         * principal variation found from ply, in its columns ply up to
+         * pvLength[ply].
+         */
+        private final int[][] pvTable;
+        private final int[] pvLength;
+
+        /**
+         * The move picker of each ply, reused by every node at that ply.
+         */
+        private final MovePicker[] movePickers;
+
+        /**
+         * The move generator of quiescence, and the captures of each
+         * quiescence ply, reused by every node at that ply.
+         */
+        private final MoveGenerator captureGenerator;
+        private final MoveList[] captureLists;
+
+        /**
+         * The move scores of each quiescence ply, reused by every node at that ply.
+         * Quiescence may search past MAX_SEARCH_DEPTH. Out of check it only
+         * captures or promotes, but in check it also makes quiet evasions,
+         * so it is only bounded because a quiet evasion must be answered by
+         * a checking capture to go on. Quiescence returns the static
+         * evaluation at the last ply of these arrays, so it never passes it.
+         */
+        private final int[][] moveScores;
 
-        long hash = game.getZobristWithTimesMoved();
-        boolean maximizingPlayer = game.getTurn() == WHITE;
-        Evaluation bestEval =
-                maximizingPlayer ? Evaluation.MIN_EVALUATION : Evaluation.MAX_EVALUATION;
-        Movable bestMove = null;
+        /**
+         * The result of the deepest finished iteration.
+         */
+        private volatile Evaluation bestEval;
+        private int bestScore;
 
-        Evaluation tableEval;
-        synchronized (transpositionTable) {
-            tableEval = transpositionTable.get(hash);
+        public IterativeDeepener(GameModel game, int startDepth, TimeManager timeManager) {
+            this.game = game;
+            this.startDepth = startDepth;
+            this.timeManager = timeManager;
+            this.moveOrderer = new MoveOrderer(MAX_SEARCH_DEPTH);
+            this.pvTable = new int[MAX_SEARCH_DEPTH + 1][MAX_SEARCH_DEPTH + 1];
+            this.movePickers = new MovePicker[MAX_SEARCH_DEPTH + 1];
+            for (int ply = 0; ply < movePickers.length; ply++) {
+                movePickers[ply] = new MovePicker(game, moveOrderer);
+            }
+            this.captureGenerator = new MoveGenerator(game);
+            this.captureLists = new MoveList[2 * MAX_SEARCH_DEPTH + 1];
+            for (int ply = 0; ply < captureLists.length; ply++) {
+                captureLists[ply] = new MoveList(game.getBoard());
+            }
+            this.moveScores = new int[2 * MAX_SEARCH_DEPTH + 1][MoveList.MAX_MOVES];
+            this.pvLength = new int[MAX_SEARCH_DEPTH + 1];
+            this.cutoffHistogram = new long[SearchStats.CUTOFF_HISTOGRAM_SIZE];
         }
-        // Search table for current position hash
-        if (tableEval != null) {
-            // If tableDepth is >= current depth use value
-            bestMove = tableEval.getMove();
-            if (tableEval.getDepth() >= depth || tableEval.getLoser() != Evaluation.NO_LOSER) {
-                bestEval = tableEval;
-                if (tableEval.isExact()) {
-                    return bestEval;
-                } else if (tableEval.isUpper()) {
-                    alphaBeta.betaMin(tableEval.getEvaluation());
+
+        /**
+         * Search one ply deeper each iteration, until the search is
+         * stopped. The evaluation of an unfinished iteration is dropped.
+         */
+        @Override
+        public void run() {
+            try {
+                for (int depth = startDepth + 1; !stopped && depth <= MAX_SEARCH_DEPTH; depth++) {
+                    runToDepth(depth);
+                }
+            } catch (SearchAbortedException ignored) {
+            }
+        }
+
+        /**
+         * Search to the given depth. From ASPIRATION_MIN_DEPTH on, the
+         * search starts with a narrow window around the previous
+         * score, and the window is widened each time the score falls
+         * outside of it.
+         *
+         * @param depth the depth to search to.
+         */
+        private void runToDepth(int depth) {
+            previousIterationNodes = nodes - iterationStartNodes;
+            iterationStartNodes = nodes;
+            quiescenceNodes = 0;
+            transpositionProbes = 0;
+            transpositionHits = 0;
+            transpositionCutoffs = 0;
+            Arrays.fill(cutoffHistogram, 0);
+            selDepth = 0;
+
+            if (bestEval == null || depth < ASPIRATION_MIN_DEPTH ||
+                    Math.abs(bestScore) >= MATE_THRESHOLD) {
+                finishIteration(negamax(-INFINITE_SCORE, INFINITE_SCORE, depth, 0));
+                return;
+            }
+
+            int lowerWindow = ASPIRATION_WINDOW;
+            int upperWindow = ASPIRATION_WINDOW;
+            while (true) {
+                int alpha = lowerWindow > MAX_ASPIRATION_WINDOW ? -INFINITE_SCORE :
+                        bestScore - lowerWindow;
+                int beta = upperWindow > MAX_ASPIRATION_WINDOW ? INFINITE_SCORE :
+                        bestScore + upperWindow;
+                int score = negamax(alpha, beta, depth, 0);
+
+                if (score <= alpha && lowerWindow <= MAX_ASPIRATION_WINDOW) {
+                    lowerWindow *= 4;
+                } else if (score >= beta && upperWindow <= MAX_ASPIRATION_WINDOW) {
+                    upperWindow *= 4;
                 } else {
-                    alphaBeta.alphaMax(tableEval.getEvaluation());
+                    finishIteration(score);
+                    return;
                 }
             }
         }
 
-        // Search through all the sorted moves
-        List<Movable> sortedMoves = game.getLegalMoves().toList();
+        /**
+         * Create the Evaluation of the root from the given score and the
+         * principal variation.
+         *
+         * @param score the score of the root, for the player to move.
+         */
+        private void finishIteration(int score) {
+            int whiteScore = toSideToMove(game, score);
+            char loser = NO_LOSER;
+            if (Math.abs(score) >= MATE_THRESHOLD) {
+                loser = (score > 0) == (game.getTurn() == WHITE) ? BLACK : WHITE;
+            }
+
+            Evaluation evaluation = null;
+            for (int idx = pvLength[0] - 1; idx >= 0; idx--) {
+                evaluation = new Evaluation(Move.toMovable(pvTable[0][idx]), whiteScore, loser,
+                                            pvLength[0] - idx, EXACT, evaluation);
+            }
+            if (evaluation == null) {
+                evaluation = new Evaluation(null, whiteScore, loser, 0, EXACT, null);
+            }
 
-        if (bestMove != null) {
-            int bestIdx = sortedMoves.indexOf(bestMove);
-            if (bestIdx == -1)
-                System.out.println("oof");
-            sortedMoves.set(bestIdx, sortedMoves.get(0));
-            sortedMoves.set(0, bestMove);
+            bestScore = score;
+            bestEval = evaluation;
+        }
+
+        /**
+         * Create the statistics of the last finished iteration.
+         *
+         * @param depth       the depth of the last finished iteration.
+         * @param timeManager the time manager of the search.
+         * @return the statistics of the iteration.
+         */
+        private SearchStats createStats(int depth, TimeManager timeManager) {
+            long iterationNodes = nodes - iterationStartNodes;
+            double branchingFactor = previousIterationNodes == 0 ? 0 :
+                    (double) iterationNodes / previousIterationNodes;
+            long totalNodes = positionsEvaluated.sum() + (nodes & (TIME_CHECK_INTERVAL - 1));
+            return new SearchStats(depth, selDepth, bestScore, iterationNodes, quiescenceNodes,
+                                   totalNodes, timeManager.getElapsedTime(),
+                                   transpositionProbes, transpositionHits,
+                                   transpositionCutoffs, cutoffHistogram, branchingFactor,
+                                   transpositionTable.hashfull(),
+                                   getPrincipalVariation());
         }
 
-        boolean didBreak = false;
-        for (Movable move : sortedMoves) {
-            // If we found a better path already, break.
-            if (alphaBeta.betaLessThanAlpha()) {
-                didBreak = true;
-                break;
+        /**
+         * @return the principal variation of the root.
+         */
+        private List<Movable> getPrincipalVariation() {
+            List<Movable> principalVariation = new ArrayList<>(pvLength[0]);
+            for (int idx = 0; idx < pvLength[0]; idx++) {
+                principalVariation.add(Move.toMovable(pvTable[0][idx]));
             }
+            return principalVariation;
+        }
 
-            // Make the move
-            game.move(move);
+        /**
+         * Get the score of the current position to the given depth, for
+         * the player to move.
+         * <p>
+         * The search is a principal variation search. The first move is
+         * searched with the full window, and every later move is first
+         * searched with a null window that only proves whether it is better
+         * than the best move so far. Only moves that prove to be better are
+         * searched again with the full window.
+         * <p>
+         * Outside the principal variation the search is selective. A node
+         * may cut off on its static evaluation or after a null move, quiet
+         * moves near the leaves may be skipped, and quiet moves late in the
+         * move order are searched with a reduced depth first.
+         *
+         * @param alpha the score the player to move is already guaranteed.
+         * @param beta  the score the opponent is already guaranteed.
+         * @param depth the depth to search to, each depth is 1 ply.
+         * @param ply   the distance from the root of the search.
+         * @return the score of the current position assuming optimal play.
+         */
+        private int negamax(int alpha, int beta, int depth, int ply) {
+            checkStopped();
 
-            // Evaluate the position
-            Evaluation currentEval = miniMax(game, new AlphaBeta(alphaBeta), depth - 1);
+            pvLength[ply] = ply;
+            selDepth = Math.max(selDepth, ply);
+            if (ply > 0 && game.isRepetition()) {
+                return DRAW_SCORE;
+            }
 
-            // Undo the move
-            game.undoLastMove();
+            char gameOverStatus = game.getGameOverStatus();
+            if (gameOverStatus != IN_PROGRESS) {
+                return gameOverStatus == LOSER ? -MATE_SCORE + ply : DRAW_SCORE;
+            } else if (depth <= 0) {
+                return quiescence(alpha, beta, ply);
+            }
 
-            if (maximizingPlayer) {
-                // If maximizing player, set the best eval to the max
-                if (bestEval.compareTo(currentEval) < 0) {
-                    bestEval = currentEval;
-                    bestMove = move;
-                    alphaBeta.alphaMax(bestEval.getEvaluation());
+            boolean pvNode = beta - alpha > 1;
+            long hash = game.getZobristHash();
+
+            // Search table for current position hash. The move picker checks that the hash
+            // move is legal here before it is searched.
+            int hashMove = 0;
+            long entry = transpositionTable.probe(hash);
+            transpositionProbes++;
+            if (entry != NO_ENTRY) {
+                hashMove = TranspositionTable.getMove(entry);
+                transpositionHits++;
+
+                // If tableDepth is >= current depth, use the score if it causes a cutoff
+                if (!pvNode && TranspositionTable.getDepth(entry) >= depth) {
+                    int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+                    byte bound = TranspositionTable.getBound(entry);
+                    if (bound == EXACT || bound == LOWER && score >= beta ||
+                            bound == UPPER && score <= alpha) {
+                        transpositionCutoffs++;
+                        return score;
+                    }
                 }
-            } else if (bestEval.compareTo(currentEval) > 0) {
-                // If minimizing player, set the best eval to the min
-                bestEval = currentEval;
-                bestMove = move;
-                alphaBeta.betaMin(bestEval.getEvaluation());
             }
-        }
 
-        if (bestEval != tableEval) {
-            bestEval = new Evaluation(bestEval, bestMove,
-                                      didBreak ? (maximizingPlayer ? LOWER : UPPER) : EXACT);
-        }
+            boolean inCheck = game.isInCheck();
+            boolean futile = false;
+            if (!inCheck && !pvNode && Math.abs(beta) < MATE_THRESHOLD) {
+                int staticEval = toSideToMove(game, evaluator.evaluateScore(game));
+
+                // Reverse futility pruning, the position is too good to search
+                if (useReverseFutilityPruning && depth <= REVERSE_FUTILITY_MAX_DEPTH &&
+                        staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                    return staticEval - REVERSE_FUTILITY_MARGIN * depth;
+                }
+
+                // Null move pruning, the position is still too good if the opponent moves twice
+                if (useNullMovePruning && depth >= NULL_MOVE_MIN_DEPTH &&
+                        game.getLastPackedMove() != Move.NO_MOVE && hasNonPawnMaterial(game) &&
+                        staticEval >= beta) {
+                    game.makeNullMove();
+                    int score = -negamax(-beta, -beta + 1, depth - 1 - NULL_MOVE_REDUCTION,
+                                         ply + 1);
+                    game.undoLastMove();
+
+                    if (score >= beta) {
+                        // Never trust a mate found after passing the turn
+                        return score >= MATE_THRESHOLD ? beta : score;
+                    }
+                }
 
-        // Add best Eval to transposition table.
-        if (useTranspositionTable && bestEval != Evaluation.MAX_EVALUATION &&
-                bestEval != Evaluation.MIN_EVALUATION) {
-            synchronized (transpositionTable) {
-                transpositionTable.merge(hash, bestEval,
-                                         (prev, next) -> prev.getDepth() < next.getDepth() ? next :
-                                                 prev);
+                // Futility pruning, quiet moves can not raise the score enough
+                if (useFutilityPruning && depth < FUTILITY_MARGINS.length) {
+                    futile = staticEval + FUTILITY_MARGINS[depth] <= alpha;
+                }
             }
-        }
 
-        return bestEval;
-    }
+            // Search through the moves in order, each kind of move is only generated once the
+            // moves before it did not cause a cutoff
+            MovePicker movePicker = movePickers[ply];
+            movePicker.reset(hashMove, ply, inCheck);
+            int bestScore = -INFINITE_SCORE;
+            int bestMove = Move.NO_MOVE;
+            byte bound = UPPER;
+            int move;
+            for (int moveIdx = 0; (move = movePicker.next()) != Move.NO_MOVE; moveIdx++) {
+                // Make the move
+                boolean quiet = !Move.isTactical(move);
+                game.move(move);
+                quiet &= !game.isInCheck();
+
+                if (futile && quiet && moveIdx > 0) {
+                    game.undoLastMove();
+                    continue;
+                }
 
-    private static class AlphaBeta {
-        double alpha;
-        double beta;
+                // Score the position
+                int score;
+                if (moveIdx == 0) {
+                    score = -negamax(-beta, -alpha, depth - 1, ply + 1);
+                } else {
+                    // Late quiet moves are first searched with a reduced depth
+                    int reduction = 0;
+                    if (useLateMoveReductions && quiet && !inCheck && depth >= LMR_MIN_DEPTH &&
+                            moveIdx >= LMR_MIN_MOVE_INDEX) {
+                        reduction = moveIdx >= 2 * LMR_MIN_MOVE_INDEX &&
+                                depth > 2 * LMR_MIN_DEPTH ? 2 : 1;
+                    }
+
+                    score = -negamax(-alpha - 1, -alpha, depth - 1 - reduction, ply + 1);
+                    if (reduction > 0 && score > alpha) {
+                        score = -negamax(-alpha - 1, -alpha, depth - 1, ply + 1);
+                    }
+                    if (alpha < score && score < beta) {
+                        score = -negamax(-beta, -alpha, depth - 1, ply + 1);
+                    }
+                }
 
-        private AlphaBeta() {
-            this(Integer.MIN_VALUE, Integer.MAX_VALUE);
-        }
+                // Undo the move
+                game.undoLastMove();
 
-        private AlphaBeta(double alpha, double beta) {
-            this.alpha = alpha;
-            this.beta = beta;
-        }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        bound = EXACT;
+                        updatePrincipalVariation(ply, move);
+
+                        // If we found a better path already, break.
+                        if (alpha >= beta) {
+                            bound = LOWER;
+                            moveOrderer.recordCutoff(game, move, depth, ply);
+                            cutoffHistogram[Math.min(moveIdx, cutoffHistogram.length - 1)]++;
+                            break;
+                        }
+                    }
+                }
+            }
 
-        private AlphaBeta(AlphaBeta alphaBeta) {
-            alpha = alphaBeta.alpha;
-            beta = alphaBeta.beta;
-        }
+            // Add best score to transposition table. A draw score may come from a repetition
+            // of the current path, so only the move of a draw is kept.
+            if (useTranspositionTable) {
+                transpositionTable.store(hash, toTableScore(bestScore, ply),
+                                         bestScore == DRAW_SCORE ? 0 : depth, bound, bestMove);
+            }
 
-        private boolean betaLessThanAlpha() {
-            return beta < alpha;
+            return bestScore;
         }
 
-        private void alphaMax(double eval) {
-            if (alpha < eval) {
-                alpha = eval;
+        /**
+         * Get the score of the current position once every capture and
+         * promotion worth making has been made, for the player to move.
+         * The player to move may also stand pat, and keep the static
+         * evaluation of the position. Only moves that do not lose material
+         * by static exchange evaluation are searched, best exchange first.
+         * A player in check may not stand pat, and searches every evasion,
+         * ordered like the evasions of the main search.
+         *
+         * @param alpha the score the player to move is already guaranteed.
+         * @param beta  the score the opponent is already guaranteed.
+         * @param ply   the distance from the root of the search.
+         * @return the score of the current position once it is quiet.
+         */
+        private int quiescence(int alpha, int beta, int ply) {
+            checkStopped();
+
+            quiescenceNodes++;
+            selDepth = Math.max(selDepth, ply);
+            char gameOverStatus = game.getGameOverStatus();
+            if (gameOverStatus != IN_PROGRESS) {
+                return gameOverStatus == LOSER ? -MATE_SCORE + ply : DRAW_SCORE;
+            } else if (ply >= moveScores.length - 1) {
+                return toSideToMove(game, evaluator.evaluateScore(game));
             }
-        }
 
-        private void betaMin(double eval) {
-            if (eval < beta) {
-                beta = eval;
+            // In check the static evaluation is no bound, so every move out of check is searched
+            boolean inCheck = game.isInCheck();
+            int bestScore;
+            MoveList moves;
+            int[] scores = moveScores[ply];
+            if (inCheck) {
+                bestScore = -MATE_SCORE + ply;
+                moves = captureGenerator.generateEvasions(captureLists[ply]);
+                moveOrderer.scoreEvasions(game, moves, scores);
+            } else {
+                bestScore = toSideToMove(game, evaluator.evaluateScore(game));
+                if (bestScore >= beta) {
+                    return bestScore;
+                }
+                alpha = Math.max(alpha, bestScore);
+                moves = captureGenerator.generateCaptures(captureLists[ply]);
+                for (int idx = 0; idx < moves.size(); idx++) {
+                    scores[idx] = StaticExchange.evaluate(game.getBoard(), moves.get(idx));
+                }
             }
-        }
-    }
 
-    private class IterativeDeepener implements Runnable {
+            for (int moveIdx = 0; moveIdx < moves.size(); moveIdx++) {
+                int move = MoveOrderer.pickNext(moves, scores, moveIdx);
+                if (!inCheck && scores[moveIdx] < 0) {
+                    break;
+                }
 
-        private final GameModel game;
-        private final int startDepth;
-        private volatile boolean killed;
-        private volatile Evaluation bestEval;
+                game.move(move);
+                int score = -quiescence(-beta, -alpha, ply + 1);
+                game.undoLastMove();
+
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
 
-        public IterativeDeepener(Evaluation bestEval, GameModel game, int startDepth) {
-            this.killed = false;
-            this.bestEval = bestEval;
-            this.game = game;
-            this.startDepth = startDepth;
+            return bestScore;
         }
 
         /**
-         * When an object implementing interface {@code Runnable} is used
-         * to create a thread, starting the thread causes the object's
-         * {@code run} method to be called in that separately executing
-         * thread.
-         * <p>
-         * The general contract of the method {@code run} is that it may
-         * take any action whatsoever.
-         *
-         * @see Thread#run()
+         * Count the node, and abort the search when it is stopped. Every
+         * TIME_CHECK_INTERVAL nodes the time manager is checked. The hard limit only applies
+         * once an iteration is finished, so there is always a move to return.
          */
-        @Override
-        public void run() {
-            int count = 1;
-            while (!killed) {
-                try {
-                    runToDepth(startDepth + count++);
-                } catch (InterruptedException ex) {
-                    killed = true;
+        private void checkStopped() {
+            if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0) {
+                positionsEvaluated.add(TIME_CHECK_INTERVAL);
+                if (timeManager != null && (timeManager.isStopped() ||
+                        bestEval != null && timeManager.isHardLimitReached())) {
+                    stopped = true;
                 }
             }
+            if (stopped) {
+                throw SearchAbortedException.INSTANCE;
+            }
         }
 
-        private void runToDepth(int depth) throws InterruptedException {
-            bestEval = miniMax(game, new AlphaBeta(), depth);
+        /**
+         * Make the given move, followed by the principal variation of the
+         * next ply, the principal variation of the given ply.
+         */
+        private void updatePrincipalVariation(int ply, int move) {
+            pvTable[ply][ply] = move;
+            int length = pvLength[ply + 1];
+            System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, length - ply - 1);
+            pvLength[ply] = Math.max(length, ply + 1);
         }
+    }
+
+    /**
+     * Thrown inside the search when the search is stopped, to unwind
+     * an unfinished iteration.
+     */
+    private static final class SearchAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final SearchAbortedException INSTANCE = new SearchAbortedException();
 
-        private void kill() {
-            killed = true;
+        private SearchAbortedException() {
+            super(null, null, false, false);
         }
     }
 }
@@ -11,6 +11,49 @@ public class Constants {
     public static final int CAPTURED_PIECE_VALUE_MULTIPLIER = 10;
     public static final int CAPTURE_BIAS = 50;
 
+    /**
+     * The pawn structure terms, as middle game and endgame values. Passed
+     * pawns are scored by how far they have advanced, from the side of
+     * the pawn. Shield pawns are the pawns of the three files around the
+     * king, on the two ranks in front of it.
+     */
+    public static final int[] PASSED_PAWN_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    public static final int[] PASSED_PAWN_ENDGAME = {0, 10, 15, 25, 45, 70, 110, 0};
+    public static final int ISOLATED_PAWN_MIDGAME = -10;
+    public static final int ISOLATED_PAWN_ENDGAME = -15;
+    public static final int DOUBLED_PAWN_MIDGAME = -10;
+    public static final int DOUBLED_PAWN_ENDGAME = -20;
+    public static final int BACKWARD_PAWN_MIDGAME = -8;
+    public static final int BACKWARD_PAWN_ENDGAME = -10;
+    public static final int PAWN_SHIELD_MIDGAME = 10;
+
+    /**
+     * The mobility terms, per square a piece attacks that is neither taken
+     * by a friendly piece nor attacked by an enemy pawn, counted from the
+     * number of such squares a piece typically has.
+     */
+    public static final int KNIGHT_MOBILITY_BASE = 4;
+    public static final int KNIGHT_MOBILITY_MIDGAME = 4;
+    public static final int KNIGHT_MOBILITY_ENDGAME = 4;
+    public static final int BISHOP_MOBILITY_BASE = 6;
+    public static final int BISHOP_MOBILITY_MIDGAME = 5;
+    public static final int BISHOP_MOBILITY_ENDGAME = 5;
+    public static final int ROOK_MOBILITY_BASE = 6;
+    public static final int ROOK_MOBILITY_MIDGAME = 2;
+    public static final int ROOK_MOBILITY_ENDGAME = 4;
+    public static final int QUEEN_MOBILITY_BASE = 12;
+    public static final int QUEEN_MOBILITY_MIDGAME = 1;
+    public static final int QUEEN_MOBILITY_ENDGAME = 2;
+
+    /**
+     * The rook file terms, for files without pawns, and files with only
+     * enemy pawns.
+     */
+    public static final int ROOK_OPEN_FILE_MIDGAME = 25;
+    public static final int ROOK_OPEN_FILE_ENDGAME = 10;
+    public static final int ROOK_SEMI_OPEN_FILE_MIDGAME = 12;
+    public static final int ROOK_SEMI_OPEN_FILE_ENDGAME = 5;
+
     private static final int TERRIBLE = -50;
     private static final int VERY_BAD = -40;
     private static final int PRET_BAD = -30;
@@ -420,4 +463,74 @@ public class Constants {
             BEST_MLT,
             BEST_MLT,
     };
+    /**
+     * The king table once most pieces are traded, where the king belongs
+     * in the center instead of behind its pawns.
+     */
+    public static final int[] KING_ENDGAME_VALUE_MAP = {
+            TERRIBLE,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            TERRIBLE,
+            PRET_BAD,
+            BAD_MULT,
+            NOT_GOOD,
+            NOT_GOOD,
+            NOT_GOOD,
+            NOT_GOOD,
+            BAD_MULT,
+            PRET_BAD,
+            PRET_BAD,
+            NOT_GOOD,
+            GOOD_MLT,
+            VRY_GOOD,
+            VRY_GOOD,
+            GOOD_MLT,
+            NOT_GOOD,
+            PRET_BAD,
+            PRET_BAD,
+            NOT_GOOD,
+            VRY_GOOD,
+            GREAT_SR,
+            GREAT_SR,
+            VRY_GOOD,
+            NOT_GOOD,
+            PRET_BAD,
+            PRET_BAD,
+            NOT_GOOD,
+            VRY_GOOD,
+            GREAT_SR,
+            GREAT_SR,
+            VRY_GOOD,
+            NOT_GOOD,
+            PRET_BAD,
+            PRET_BAD,
+            NOT_GOOD,
+            GOOD_MLT,
+            VRY_GOOD,
+            VRY_GOOD,
+            GOOD_MLT,
+            NOT_GOOD,
+            PRET_BAD,
+            PRET_BAD,
+            BAD_MULT,
+            NOT_GOOD,
+            NOT_GOOD,
+            NOT_GOOD,
+            NOT_GOOD,
+            BAD_MULT,
+            PRET_BAD,
+            TERRIBLE,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            PRET_BAD,
+            TERRIBLE,
+    };
 }
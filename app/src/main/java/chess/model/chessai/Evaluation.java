@@ -33,7 +33,7 @@ public class Evaluation implements Comparable<Evaluation> {
         this(null, evaluation, NO_LOSER, depth, EXACT, null);
     }
 
-    public Evaluation(NormalMove currentMove, int evaluation, char loser, int depth, byte bound,
+    public Evaluation(Movable currentMove, int evaluation, char loser, int depth, byte bound,
                       Evaluation next) {
         this.move = currentMove;
         this.evaluation = evaluation;
@@ -131,13 +131,14 @@ public class Evaluation implements Comparable<Evaluation> {
             return GREATER_THAN;
         } else if (this.loser == WHITE) {
             if (o.loser == WHITE) {
-                return Integer.compare(this.depth, o.depth);
+                // The evaluation of a mate shrinks each ply, so a later mate is closer to zero
+                return Integer.compare(this.evaluation, o.evaluation);
             } else {
                 return LESS_THAN;
             }
         } else if (this.loser == BLACK) {
             if (o.loser == BLACK) {
-                return Integer.compare(o.depth, this.depth);
+                return Integer.compare(this.evaluation, o.evaluation);
             } else {
                 return GREATER_THAN;
             }
@@ -152,6 +153,10 @@ public class Evaluation implements Comparable<Evaluation> {
         return evaluation1.compareTo(evaluation2) < 0 ? evaluation2 : evaluation1;
     }
 
+    public byte getBound() {
+        return bound;
+    }
+
     public boolean isExact() {
         return bound == EXACT;
     }
@@ -211,6 +216,10 @@ public class Evaluation implements Comparable<Evaluation> {
         return move;
     }
 
+    public Evaluation getNext() {
+        return next;
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder();
@@ -30,6 +30,20 @@ public interface Evaluator {
      */
     Evaluation evaluate(GameModel game);
 
+    /**
+     * Evaluates the given game, which must still be in progress, and returns
+     * the score from whites perspective. Unlike evaluate, this does not create
+     * an Evaluation, so the search can call it at every node. The score
+     * must only depend on the position, as the search may cache it by
+     * the zobrist hash of the game, see CachedEvaluator.
+     *
+     * @param game the game to evaluate.
+     * @return the score of this game, positive if white is better.
+     */
+    default int evaluateScore(GameModel game) {
+        return (int) evaluate(game).getEvaluation();
+    }
+
     /**
      * Returns a list of all the legal moves in this position, and they are sorted
      * into this evaluators best guess from most-likely to be the best move, to least
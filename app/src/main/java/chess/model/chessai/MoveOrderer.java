@@ -0,0 +1,234 @@
+package chess.model.chessai;
+
+import chess.model.GameModel;
+import chess.model.MoveList;
+import chess.model.moves.Move;
+
+import java.util.Arrays;
+
+import static chess.model.GameModel.WHITE;
+
+/**
+ * This class orders the moves of a single search thread, so the moves
+ * most likely to cause a cutoff are searched first. Moves are picked by
+ * a MovePicker in the following order:
+ *
+ * <ol>
+ *     <li>The move from the transposition table</li>
+ *     <li>Captures and promotions that do not lose material, by static exchange</li>
+ *     <li>The killer moves of the current ply</li>
+ *     <li>The counter move of the opponents last move</li>
+ *     <li>Every other quiet move, by its history score</li>
+ *     <li>Captures that lose material, by static exchange</li>
+ * </ol>
+ * <p>
+ * In check, the hash move is followed by every evasion, good captures
+ * first, then quiet moves by history, then bad captures.
+ * <p>
+ * The killer, history and counter move tables are only updated when a
+ * quiet move causes a beta cutoff, and are kept between the iterations
+ * of an iterative deepening search. Moves are in the int form of Move.
+ */
+public class MoveOrderer {
+
+    /**
+     * Once a history score reaches this value, every history score of
+     * that color is halved. This keeps quiet evasions between the good
+     * and the bad capture evasions.
+     */
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private static final int GOOD_CAPTURE_SCORE = 1 << 28;
+    private static final int BAD_CAPTURE_SCORE = -(1 << 28);
+
+    /**
+     * The number of killer moves kept for each ply.
+     */
+    public static final int NUM_KILLERS = 2;
+
+    /**
+     * The quiet moves that caused a cutoff at each ply, most recent first.
+     */
+    private final int[][] killers;
+
+    /**
+     * The butterfly history table, indexed by [color][from][to].
+     */
+    private final int[][][] history;
+
+    /**
+     * The quiet move that refuted a move, indexed by the moving piece and
+     * end square of the refuted move.
+     */
+    private final int[][] counterMoves;
+
+    /**
+     * Creates a move orderer for a search of at most the given number of plies.
+     *
+     * @param maxPly the deepest ply that will be ordered.
+     */
+    public MoveOrderer(int maxPly) {
+        this.killers = new int[maxPly + 1][NUM_KILLERS];
+        this.history = new int[2][64][64];
+        this.counterMoves = new int[13][64];
+    }
+
+    /**
+     * Forget every move this orderer learned.
+     */
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, 0);
+        }
+        for (int[][] colorHistory : history) {
+            for (int[] fromHistory : colorHistory) {
+                Arrays.fill(fromHistory, 0);
+            }
+        }
+        for (int[] pieceCounterMoves : counterMoves) {
+            Arrays.fill(pieceCounterMoves, 0);
+        }
+    }
+
+    /**
+     * Scores every capture and promotion of the given list by static
+     * exchange, so the captures that lose material have negative scores.
+     *
+     * @param game   the game the moves are legal in.
+     * @param moves  the legal captures and promotions of the current position.
+     * @param scores the buffer the score of each move is written to, at the same index.
+     */
+    public void scoreCaptures(GameModel game, MoveList moves, int[] scores) {
+        for (int idx = 0; idx < moves.size(); idx++) {
+            scores[idx] = StaticExchange.evaluate(game.getBoard(), moves.get(idx));
+        }
+    }
+
+    /**
+     * Scores every quiet move of the given list by its history score.
+     *
+     * @param game   the game the moves are legal in.
+     * @param moves  the legal quiet moves of the current position.
+     * @param scores the buffer the score of each move is written to, at the same index.
+     */
+    public void scoreQuiets(GameModel game, MoveList moves, int[] scores) {
+        int[][] colorHistory = history[colorIndex(game.getTurn())];
+        for (int idx = 0; idx < moves.size(); idx++) {
+            int move = moves.get(idx);
+            scores[idx] = colorHistory[Move.getFrom(move)][Move.getTo(move)];
+        }
+    }
+
+    /**
+     * Scores every move of the given list of evasions, captures and
+     * promotions by static exchange, and quiet moves by history.
+     *
+     * @param game   the game the moves are legal in, which is in check.
+     * @param moves  the legal moves of the current position.
+     * @param scores the buffer the score of each move is written to, at the same index.
+     */
+    public void scoreEvasions(GameModel game, MoveList moves, int[] scores) {
+        int[][] colorHistory = history[colorIndex(game.getTurn())];
+        for (int idx = 0; idx < moves.size(); idx++) {
+            int move = moves.get(idx);
+            if (Move.isTactical(move)) {
+                int exchange = StaticExchange.evaluate(game.getBoard(), move);
+                scores[idx] = (exchange >= 0 ? GOOD_CAPTURE_SCORE : BAD_CAPTURE_SCORE) + exchange;
+            } else {
+                scores[idx] = colorHistory[Move.getFrom(move)][Move.getTo(move)];
+            }
+        }
+    }
+
+    /**
+     * @param ply the distance from the root of the search.
+     * @param idx the index of the killer, 0 for the most recent.
+     * @return the killer move, or NO_MOVE if there is none.
+     */
+    public int getKiller(int ply, int idx) {
+        return killers[ply][idx];
+    }
+
+    /**
+     * @return the quiet move that refuted the last move of the given
+     * game before, or NO_MOVE if there is none.
+     */
+    public int getCounterMove(GameModel game) {
+        int lastMove = game.getLastPackedMove();
+        if (lastMove == Move.NO_MOVE) {
+            return Move.NO_MOVE;
+        }
+        return counterMoves[Move.getMoving(lastMove)][Move.getTo(lastMove)];
+    }
+
+    /**
+     * Swaps the move with the highest score of the moves at startIdx and
+     * after it to startIdx. Picking the moves one at a time does not sort
+     * the moves that are never searched because of a cutoff.
+     *
+     * @param moves    the moves to pick from.
+     * @param scores   the score of each move.
+     * @param startIdx the index of the next move to search.
+     * @return the move with the highest score.
+     */
+    public static int pickNext(MoveList moves, int[] scores, int startIdx) {
+        int bestIdx = startIdx;
+        for (int idx = startIdx + 1; idx < moves.size(); idx++) {
+            if (scores[idx] > scores[bestIdx]) {
+                bestIdx = idx;
+            }
+        }
+
+        if (bestIdx != startIdx) {
+            moves.swap(bestIdx, startIdx);
+
+            int score = scores[bestIdx];
+            scores[bestIdx] = scores[startIdx];
+            scores[startIdx] = score;
+        }
+        return moves.get(startIdx);
+    }
+
+    /**
+     * Learn from a move that caused a beta cutoff. Captures and promotions
+     * are already ordered by static exchange, so only quiet moves are
+     * recorded.
+     *
+     * @param game  the game the move is legal in, before the move is made.
+     * @param move  the move that caused the cutoff.
+     * @param depth the remaining depth of the search that was cut off.
+     * @param ply   the distance from the root of the search.
+     */
+    public void recordCutoff(GameModel game, int move, int depth, int ply) {
+        if (Move.isTactical(move)) {
+            return;
+        }
+
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        int[][] colorHistory = history[colorIndex(game.getTurn())];
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        colorHistory[from][to] += depth * depth;
+        if (colorHistory[from][to] >= MAX_HISTORY) {
+            for (int[] fromHistory : colorHistory) {
+                for (int toIdx = 0; toIdx < fromHistory.length; toIdx++) {
+                    fromHistory[toIdx] /= 2;
+                }
+            }
+        }
+
+        int lastMove = game.getLastPackedMove();
+        if (lastMove != Move.NO_MOVE) {
+            counterMoves[Move.getMoving(lastMove)][Move.getTo(lastMove)] = move;
+        }
+    }
+
+    private static int colorIndex(char color) {
+        return color == WHITE ? 0 : 1;
+    }
+}
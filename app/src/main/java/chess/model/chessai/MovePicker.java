@@ -0,0 +1,259 @@
+package chess.model.chessai;
+
+import chess.model.GameModel;
+import chess.model.MoveGenerator;
+import chess.model.MoveList;
+import chess.model.moves.Move;
+
+/**
+ * This class hands out the legal moves of one node of the search one at
+ * a time, in the order of the MoveOrderer, and only generates each kind
+ * of move once the moves before it failed to cause a cutoff. The stages
+ * are as follows:
+ *
+ * <ol>
+ *     <li>The move from the transposition table, checked without generating any move</li>
+ *     <li>Captures and promotions that do not lose material, by static exchange</li>
+ *     <li>The killer moves of the ply, and the counter move of the last move</li>
+ *     <li>Every other quiet move, by its history score</li>
+ *     <li>Captures that lose material, by static exchange</li>
+ * </ol>
+ * <p>
+ * In check, the hash move is followed by the evasions of the move
+ * generator, ordered by the MoveOrderer. Every move is returned once.
+ * Each ply of a search thread has its own picker, with its own move
+ * generator, so the attack data of its position is kept while the
+ * moves of the ply below are searched.
+ */
+public class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int GENERATE_EVASIONS = 7;
+    private static final int EVASIONS = 8;
+    private static final int DONE = 9;
+
+    /**
+     * The killers are followed by the counter move.
+     */
+    private static final int NUM_REFUTATIONS = MoveOrderer.NUM_KILLERS + 1;
+
+    private final GameModel game;
+    private final MoveOrderer moveOrderer;
+    private final MoveGenerator moveGenerator;
+
+    private final MoveList captures;
+    private final int[] captureScores;
+    private final MoveList quiets;
+    private final int[] quietScores;
+
+    /**
+     * The killers and counter move that were returned, so they are not
+     * returned again with the other quiet moves.
+     */
+    private final int[] refutations;
+    private int numRefutations;
+
+    private int stage;
+    private boolean inCheck;
+    private int hashKey;
+    private int hashMove;
+    private int ply;
+    private int captureIdx;
+    private int refutationIdx;
+    private int quietIdx;
+
+    /**
+     * Creates a picker for the moves of the given game.
+     *
+     * @param game        the game to pick the moves of.
+     * @param moveOrderer the move orderer of the search thread.
+     */
+    public MovePicker(GameModel game, MoveOrderer moveOrderer) {
+        this.game = game;
+        this.moveOrderer = moveOrderer;
+        this.moveGenerator = new MoveGenerator(game);
+        this.captures = new MoveList(game.getBoard());
+        this.captureScores = new int[MoveList.MAX_MOVES];
+        this.quiets = new MoveList(game.getBoard());
+        this.quietScores = new int[MoveList.MAX_MOVES];
+        this.refutations = new int[NUM_REFUTATIONS];
+    }
+
+    /**
+     * Start picking the moves of the current position of the game.
+     *
+     * @param hashKey the key of the move from the transposition table, or 0 if none.
+     * @param ply     the distance from the root of the search.
+     * @param inCheck if the player to move is in check.
+     */
+    public void reset(int hashKey, int ply, boolean inCheck) {
+        this.stage = HASH_MOVE;
+        this.inCheck = inCheck;
+        this.hashKey = hashKey;
+        this.hashMove = Move.NO_MOVE;
+        this.ply = ply;
+        this.captureIdx = 0;
+        this.refutationIdx = 0;
+        this.numRefutations = 0;
+        this.quietIdx = 0;
+    }
+
+    /**
+     * @return the next move to search, or NO_MOVE once every legal move
+     * was returned.
+     */
+    public int next() {
+        // Every stage moves on to the next once it has no move left
+        while (true) {
+            int move = Move.NO_MOVE;
+            switch (stage) {
+                case HASH_MOVE -> {
+                    hashMove = moveGenerator.getLegalMove(hashKey);
+                    move = hashMove;
+                    stage = inCheck ? GENERATE_EVASIONS : GENERATE_CAPTURES;
+                }
+                case GENERATE_CAPTURES -> {
+                    moveGenerator.generateCaptures(captures);
+                    moveOrderer.scoreCaptures(game, captures, captureScores);
+                    stage = GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    move = nextGoodCapture();
+                    if (move == Move.NO_MOVE) {
+                        stage = KILLERS;
+                    }
+                }
+                case KILLERS -> {
+                    move = nextRefutation();
+                    if (move == Move.NO_MOVE) {
+                        stage = GENERATE_QUIETS;
+                    }
+                }
+                case GENERATE_QUIETS -> {
+                    moveGenerator.generateQuiets(quiets);
+                    moveOrderer.scoreQuiets(game, quiets, quietScores);
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    move = nextQuiet();
+                    if (move == Move.NO_MOVE) {
+                        stage = BAD_CAPTURES;
+                    }
+                }
+                case BAD_CAPTURES -> {
+                    move = nextBadCapture();
+                    if (move == Move.NO_MOVE) {
+                        stage = DONE;
+                    }
+                }
+                case GENERATE_EVASIONS -> {
+                    moveGenerator.generateEvasions(quiets);
+                    moveOrderer.scoreEvasions(game, quiets, quietScores);
+                    stage = EVASIONS;
+                }
+                case EVASIONS -> {
+                    move = nextQuiet();
+                    if (move == Move.NO_MOVE) {
+                        stage = DONE;
+                    }
+                }
+                default -> {
+                    return Move.NO_MOVE;
+                }
+            }
+
+            if (move != Move.NO_MOVE) {
+                return move;
+            }
+        }
+    }
+
+    /**
+     * @return the best capture that does not lose material, or NO_MOVE
+     * if none is left.
+     */
+    private int nextGoodCapture() {
+        while (captureIdx < captures.size()) {
+            int move = MoveOrderer.pickNext(captures, captureScores, captureIdx);
+            if (captureScores[captureIdx] < 0) {
+                break;
+            }
+            captureIdx++;
+            if (move != hashMove) {
+                return move;
+            }
+        }
+        return Move.NO_MOVE;
+    }
+
+    /**
+     * @return the next legal killer or counter move, or NO_MOVE if none
+     * is left.
+     */
+    private int nextRefutation() {
+        while (refutationIdx < NUM_REFUTATIONS) {
+            int move = refutationIdx < MoveOrderer.NUM_KILLERS ?
+                    moveOrderer.getKiller(ply, refutationIdx) :
+                    moveOrderer.getCounterMove(game);
+            refutationIdx++;
+            if (isNewRefutation(move) &&
+                    moveGenerator.getLegalMove(Move.getKey(move)) == move) {
+                refutations[numRefutations++] = move;
+                return move;
+            }
+        }
+        return Move.NO_MOVE;
+    }
+
+    /**
+     * @return the best quiet move or evasion that was not returned yet,
+     * or NO_MOVE if none is left.
+     */
+    private int nextQuiet() {
+        while (quietIdx < quiets.size()) {
+            int move = MoveOrderer.pickNext(quiets, quietScores, quietIdx++);
+            if (move != hashMove && !isRefutation(move)) {
+                return move;
+            }
+        }
+        return Move.NO_MOVE;
+    }
+
+    /**
+     * @return the best capture that loses material, or NO_MOVE if none
+     * is left.
+     */
+    private int nextBadCapture() {
+        while (captureIdx < captures.size()) {
+            int move = MoveOrderer.pickNext(captures, captureScores, captureIdx++);
+            if (move != hashMove) {
+                return move;
+            }
+        }
+        return Move.NO_MOVE;
+    }
+
+    /**
+     * @return if the given killer or counter move is a quiet move that
+     * was not returned yet.
+     */
+    private boolean isNewRefutation(int move) {
+        return move != Move.NO_MOVE && move != hashMove && !Move.isTactical(move) &&
+                !isRefutation(move);
+    }
+
+    private boolean isRefutation(int move) {
+        for (int idx = 0; idx < numRefutations; idx++) {
+            if (refutations[idx] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
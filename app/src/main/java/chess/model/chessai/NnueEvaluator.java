@@ -0,0 +1,240 @@
+package chess.model.chessai;
+
+import chess.model.BoardListener;
+import chess.model.BoardModel;
+import chess.model.GameModel;
+import chess.model.moves.Move;
+import chess.model.pieces.Piece;
+
+import static chess.model.GameModel.BLACK;
+import static chess.model.GameModel.WHITE;
+import static chess.model.pieces.Piece.*;
+
+/**
+ * An evaluator that scores positions with a quantized network, see
+ * NnueNetwork. The hidden layer before the activation, the accumulator,
+ * only depends on the pieces of the board, and a move only adds and
+ * removes a few pieces. So the accumulator of every position is kept on
+ * a stack, and every move pushes the accumulator of its parent with only
+ * the inputs of the moved pieces changed, and every undone move pops it.
+ * Every search thread has its own stack, which listens to the board of
+ * the game that thread evaluated last. Only the castling rights and side
+ * to move inputs are added at every evaluation. Inference only uses
+ * integers, and runs on the vector API when it is available, see
+ * NnueKernel.
+ */
+public class NnueEvaluator extends AbstractEvaluator {
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private final NnueNetwork network;
+    private final NnueKernel kernel;
+
+    /**
+     * The accumulator stack of every thread that evaluates with this evaluator.
+     */
+    private final ThreadLocal<Accumulator> accumulators;
+
+    /**
+     * Creates an evaluator that scores positions with the given network.
+     *
+     * @param game    the game this evaluator is used in.
+     * @param network the network that scores positions.
+     */
+    public NnueEvaluator(GameModel game, NnueNetwork network) {
+        this(game, network, NnueKernel.getDefault());
+    }
+
+    /**
+     * Creates an evaluator that scores positions with the given network,
+     * on the vector API or one neuron at a time.
+     *
+     * @param game         the game this evaluator is used in.
+     * @param network      the network that scores positions.
+     * @param useVectorApi if the vector API is used, which requires the
+     *                     jdk.incubator.vector module.
+     */
+    public NnueEvaluator(GameModel game, NnueNetwork network, boolean useVectorApi) {
+        this(game, network, NnueKernel.get(useVectorApi));
+    }
+
+    private NnueEvaluator(GameModel game, NnueNetwork network, NnueKernel kernel) {
+        this.network = network;
+        this.kernel = kernel;
+        this.accumulators = ThreadLocal.withInitial(() -> new Accumulator(network, kernel));
+    }
+
+    /**
+     * @return if the vector API can be used by this JVM.
+     */
+    public static boolean isVectorApiAvailable() {
+        return NnueKernel.isVectorApiAvailable();
+    }
+
+    /**
+     * @return if this evaluator uses the vector API.
+     */
+    public boolean usesVectorApi() {
+        return kernel instanceof VectorNnueKernel;
+    }
+
+    /**
+     * Scores the given game with the network, from the accumulator of the
+     * board of the game.
+     *
+     * @param game the game to evaluate.
+     * @return the score of this game, positive if white is better.
+     */
+    @Override
+    public int evaluateScore(GameModel game) {
+        Accumulator accumulator = accumulators.get();
+        short[] values = accumulator.getValues(game.getBoard());
+        short[] neurons = accumulator.neurons;
+
+        System.arraycopy(values, 0, neurons, 0, neurons.length);
+        addStateInput(neurons, 0, game.getTurn() == WHITE);
+        addStateInput(neurons, 1, game.canKingSideCastle(WHITE));
+        addStateInput(neurons, 2, game.canKingSideCastle(BLACK));
+        addStateInput(neurons, 3, game.canQueenSideCastle(WHITE));
+        addStateInput(neurons, 4, game.canQueenSideCastle(BLACK));
+
+        int output = kernel.forward(neurons, network.getOutputWeights(),
+                                    network.getActivationMax());
+        return (output + network.getOutputBias()) / network.getOutputDivisor();
+    }
+
+    private void addStateInput(short[] neurons, int input, boolean isSet) {
+        if (isSet) {
+            kernel.add(neurons, network.getInputWeights(), input * network.getHiddenSize());
+        }
+    }
+
+    /**
+     * The accumulator stack of one thread. The stack is bound to the last
+     * board it evaluated, and listens to the moves made on that board. If
+     * a move before the first position of the stack is undone, or the
+     * position of the board is set, the accumulator is computed from the
+     * pieces again at the next evaluation.
+     */
+    private static class Accumulator implements BoardListener {
+
+        private static final int INITIAL_STACK_SIZE = 64;
+
+        private final NnueNetwork network;
+        private final NnueKernel kernel;
+
+        /**
+         * The hidden neurons of the evaluated position, after the state
+         * inputs are added.
+         */
+        private final short[] neurons;
+
+        private short[][] stack;
+        private int top;
+        private BoardModel board;
+        private boolean isStale;
+
+        private Accumulator(NnueNetwork network, NnueKernel kernel) {
+            this.network = network;
+            this.kernel = kernel;
+            this.neurons = new short[network.getHiddenSize()];
+            this.stack = new short[INITIAL_STACK_SIZE][network.getHiddenSize()];
+        }
+
+        /**
+         * @return the accumulator of the current position of the given board.
+         */
+        private short[] getValues(BoardModel board) {
+            if (this.board != board || board.getListener() != this || isStale) {
+                refresh(board);
+            }
+            return stack[top];
+        }
+
+        /**
+         * Bind this stack to the given board, and compute the accumulator
+         * of its position from its pieces.
+         */
+        private void refresh(BoardModel board) {
+            if (this.board != null && this.board != board && this.board.getListener() == this) {
+                this.board.setListener(null);
+            }
+            this.board = board;
+            board.setListener(this);
+
+            top = 0;
+            short[] values = stack[top];
+            System.arraycopy(network.getHiddenBiases(), 0, values, 0, values.length);
+            for (int pieceIdx = WHITE_KING.getUniqueIdx(); pieceIdx < PIECES.length; pieceIdx++) {
+                for (long pieces = board.getPieceMap(PIECES[pieceIdx]); pieces != 0;
+                     pieces &= pieces - 1) {
+                    add(values, pieceIdx, Long.numberOfTrailingZeros(pieces));
+                }
+            }
+            isStale = false;
+        }
+
+        @Override
+        public void positionSet(BoardModel board) {
+            isStale = true;
+        }
+
+        @Override
+        public void moveMade(int move) {
+            if (isStale) {
+                return;
+            }
+            if (top + 1 == stack.length) {
+                short[][] grown = new short[2 * stack.length][];
+                System.arraycopy(stack, 0, grown, 0, stack.length);
+                for (int idx = stack.length; idx < grown.length; idx++) {
+                    grown[idx] = new short[network.getHiddenSize()];
+                }
+                stack = grown;
+            }
+
+            short[] values = stack[top + 1];
+            System.arraycopy(stack[top], 0, values, 0, values.length);
+            top++;
+            if (move == Move.NO_MOVE) {
+                return;
+            }
+
+            int from = Move.getFrom(move);
+            int to = Move.getTo(move);
+            int moving = Move.getMoving(move);
+            subtract(values, moving, from);
+            add(values, Move.isPromotion(move) ? Move.getPromoted(move) : moving, to);
+            if (Move.isCapture(move)) {
+                subtract(values, Move.getCaptured(move), Move.getCaptureSquare(move));
+            } else if (Move.isCastling(move)) {
+                int rook = (moving == WHITE_KING.getUniqueIdx() ? WHITE_ROOK : BLACK_ROOK)
+                        .getUniqueIdx();
+                subtract(values, rook, BoardModel.getCastlingRookFrom(from, to));
+                add(values, rook, BoardModel.getCastlingRookTo(from, to));
+            }
+        }
+
+        @Override
+        public void moveUndone(int move) {
+            if (isStale) {
+                return;
+            }
+            if (top == 0) {
+                isStale = true;
+            } else {
+                top--;
+            }
+        }
+
+        private void add(short[] values, int pieceIdx, int square) {
+            kernel.add(values, network.getInputWeights(),
+                       NnueNetwork.getPieceInput(pieceIdx, square) * values.length);
+        }
+
+        private void subtract(short[] values, int pieceIdx, int square) {
+            kernel.subtract(values, network.getInputWeights(),
+                            NnueNetwork.getPieceInput(pieceIdx, square) * values.length);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package chess.model.chessai;
+
+/**
+ * The dense arithmetic of network inference, the accumulator updates and
+ * the hidden layer. There is a scalar kernel that runs everywhere, and a
+ * kernel built on the incubating vector API, which is only used if the
+ * jdk.incubator.vector module is added to the JVM.
+ */
+interface NnueKernel {
+
+    /**
+     * The system property that turns the vector kernel off when set to
+     * false. The vector kernel is used by default when it is available.
+     */
+    String VECTOR_PROPERTY = "chess.nnue.vector";
+
+    /**
+     * Add the weights starting at the given offset to every value.
+     */
+    void add(short[] values, short[] weights, int offset);
+
+    /**
+     * Subtract the weights starting at the given offset from every value.
+     */
+    void subtract(short[] values, short[] weights, int offset);
+
+    /**
+     * Clip every neuron to between 0 and the given max, and sum the
+     * clipped neurons times their weights.
+     *
+     * @return the weighted sum of the clipped neurons.
+     */
+    int forward(short[] neurons, short[] weights, int activationMax);
+
+    /**
+     * @return if the vector API module is loaded in this JVM.
+     */
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * @return the vector kernel, unless it is turned off by the system
+     * property or the vector API is not available, else the scalar kernel.
+     */
+    static NnueKernel getDefault() {
+        boolean useVectorApi = !"false".equalsIgnoreCase(System.getProperty(VECTOR_PROPERTY));
+        return get(useVectorApi && isVectorApiAvailable());
+    }
+
+    /**
+     * @param useVectorApi if the vector kernel should be returned.
+     * @return the vector or the scalar kernel.
+     */
+    static NnueKernel get(boolean useVectorApi) {
+        if (useVectorApi && !isVectorApiAvailable()) {
+            throw new IllegalStateException("The jdk.incubator.vector module is not loaded");
+        }
+        return useVectorApi ? new VectorNnueKernel() : new ScalarNnueKernel();
+    }
+}
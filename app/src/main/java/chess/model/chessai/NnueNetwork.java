@@ -0,0 +1,226 @@
+package chess.model.chessai;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The quantized weights of a network with one hidden layer, as used by
+ * the NnueEvaluator. The inputs of the network are the features of
+ * BoardRepFeature, in the same order, so a network trained on those
+ * features can be loaded directly:
+ *
+ * <ul>
+ *     <li>Input 0 is set if white is to move</li>
+ *     <li>Inputs 1-4 are the castling rights, white king side, black king
+ *     side, white queen side and black queen side</li>
+ *     <li>Inputs 5-772 are 12 inputs per square, from a1 to h8, one for
+ *     each piece in the order PNBRQKpnbrqk</li>
+ * </ul>
+ * <p>
+ * Every hidden neuron is clipped to between 0 and the activation max,
+ * and the output is the sum of the clipped neurons times their output
+ * weights, plus the output bias, divided by the output divisor, in
+ * centipawns from whites perspective. Weights must be quantized so that
+ * no hidden neuron overflows a short.
+ * <p>
+ * A weights file holds the following big endian values, in order: the
+ * magic number, the version, the input size, the hidden size, the
+ * activation max, the output divisor, the input weights as shorts for
+ * one input after the other, the hidden biases as shorts, the output
+ * weights as shorts, and the output bias as an int.
+ */
+public class NnueNetwork {
+
+    /**
+     * The number of inputs that are not pieces on squares.
+     */
+    public static final int STATE_INPUTS = 5;
+
+    /**
+     * The number of inputs of every network.
+     */
+    public static final int INPUT_SIZE = STATE_INPUTS + 64 * 12;
+
+    private static final int MAGIC = 0x4E4E5545;
+    private static final int VERSION = 1;
+
+    private final int hiddenSize;
+    private final int activationMax;
+    private final int outputDivisor;
+    private final short[] inputWeights;
+    private final short[] hiddenBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    /**
+     * Creates a network from its quantized weights.
+     *
+     * @param hiddenSize    the number of hidden neurons.
+     * @param activationMax the value every hidden neuron is clipped to.
+     * @param outputDivisor the value the output is divided by.
+     * @param inputWeights  the weights of every input to every neuron, the
+     *                      weights of input i start at i * hiddenSize.
+     * @param hiddenBiases  the bias of every hidden neuron.
+     * @param outputWeights the weight of every hidden neuron to the output.
+     * @param outputBias    the bias of the output.
+     */
+    public NnueNetwork(int hiddenSize, int activationMax, int outputDivisor,
+                       short[] inputWeights, short[] hiddenBiases, short[] outputWeights,
+                       int outputBias) {
+        if (hiddenSize <= 0) {
+            throw new IllegalArgumentException("Hidden size must be positive: " + hiddenSize);
+        } else if (activationMax <= 0 || activationMax > Short.MAX_VALUE || outputDivisor <= 0) {
+            throw new IllegalArgumentException("Activation max must be a positive short, and " +
+                                                       "output divisor positive: " +
+                                                       activationMax + ", " + outputDivisor);
+        } else if (inputWeights.length != INPUT_SIZE * hiddenSize ||
+                hiddenBiases.length != hiddenSize || outputWeights.length != hiddenSize) {
+            throw new IllegalArgumentException("Weights do not match the hidden size: " +
+                                                       hiddenSize);
+        }
+
+        this.hiddenSize = hiddenSize;
+        this.activationMax = activationMax;
+        this.outputDivisor = outputDivisor;
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Read a network from the given weights file.
+     *
+     * @param path the path of the weights file.
+     * @return the network of the file.
+     * @throws IOException if the file cannot be read, or is not a weights file.
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Read a network in the format of a weights file from the given stream.
+     *
+     * @param in the stream to read from.
+     * @return the network that was read.
+     * @throws IOException if the stream cannot be read, or does not hold a network.
+     */
+    public static NnueNetwork read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a network weights file");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported network version: " + version);
+        }
+        int inputSize = data.readInt();
+        if (inputSize != INPUT_SIZE) {
+            throw new IOException("Expected " + INPUT_SIZE + " inputs, found " + inputSize);
+        }
+
+        int hiddenSize = data.readInt();
+        int activationMax = data.readInt();
+        int outputDivisor = data.readInt();
+        if (hiddenSize <= 0 || hiddenSize > 1 << 16) {
+            throw new IOException("Invalid hidden size: " + hiddenSize);
+        }
+
+        short[] inputWeights = readShorts(data, INPUT_SIZE * hiddenSize);
+        short[] hiddenBiases = readShorts(data, hiddenSize);
+        short[] outputWeights = readShorts(data, hiddenSize);
+        int outputBias = data.readInt();
+
+        try {
+            return new NnueNetwork(hiddenSize, activationMax, outputDivisor, inputWeights,
+                                   hiddenBiases, outputWeights, outputBias);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private static short[] readShorts(DataInputStream data, int length) throws IOException {
+        short[] values = new short[length];
+        for (int idx = 0; idx < length; idx++) {
+            values[idx] = data.readShort();
+        }
+        return values;
+    }
+
+    /**
+     * Write this network to the given stream in the format of a weights file.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(INPUT_SIZE);
+        data.writeInt(hiddenSize);
+        data.writeInt(activationMax);
+        data.writeInt(outputDivisor);
+        writeShorts(data, inputWeights);
+        writeShorts(data, hiddenBiases);
+        writeShorts(data, outputWeights);
+        data.writeInt(outputBias);
+        data.flush();
+    }
+
+    private static void writeShorts(DataOutputStream data, short[] values) throws IOException {
+        for (short value : values) {
+            data.writeShort(value);
+        }
+    }
+
+    /**
+     * @return the index of the input of the given piece on the given square.
+     */
+    public static int getPieceInput(int pieceIdx, int square) {
+        // Pieces are ordered PNBRQK for each color, unlike their unique indices
+        int pieceOrder = pieceIdx <= 6 ? 6 - pieceIdx : 18 - pieceIdx;
+        return STATE_INPUTS + 12 * square + pieceOrder;
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    public int getActivationMax() {
+        return activationMax;
+    }
+
+    public int getOutputDivisor() {
+        return outputDivisor;
+    }
+
+    /**
+     * @return the weights of every input, the weights of input i start
+     * at i * hiddenSize.
+     */
+    short[] getInputWeights() {
+        return inputWeights;
+    }
+
+    short[] getHiddenBiases() {
+        return hiddenBiases;
+    }
+
+    short[] getOutputWeights() {
+        return outputWeights;
+    }
+
+    public int getOutputBias() {
+        return outputBias;
+    }
+}
@@ -1,143 +1,185 @@
 package chess.model.chessai;
 
-import chess.ChessCoordinate;
+import chess.model.BoardModel;
 import chess.model.GameModel;
-import chess.model.MoveList;
-import chess.model.moves.Movable;
-import chess.model.moves.PromotionMove;
+import chess.model.PieceSquareTable;
 import chess.model.pieces.Piece;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
 import static chess.model.chessai.Constants.*;
-import static chess.model.chessai.Evaluation.EXACT;
 
-public class PositionEvaluator implements Evaluator {
+public class PositionEvaluator extends AbstractEvaluator {
 
     private static final int WIN_SCORE = 100_000;
 
+    /**
+     * The phase of the starting position.
+     */
+    private static final int MIDGAME_PHASE = 24;
+
+    /**
+     * The size of the pawn table, the pawns of a search fit in very few
+     * entries.
+     */
+    private static final int PAWN_TABLE_SIZE_MB = 1;
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+
+    /**
+     * The pawn structure scores of the pawns this evaluator has seen.
+     */
+    private final ScoreTable pawnTable;
+
 
     public PositionEvaluator(GameModel game) {
+        this.pawnTable = new ScoreTable(PAWN_TABLE_SIZE_MB);
     }
 
+
     /**
-     * Evaluates the given game and returns an evaluation of this position. The
-     * Evaluation will have a depth of 0, and the move will be null.
-     *
-     * @param game the game to evaluate.
-     * @return the evaluation of this game.
+     * Blends the middle game and endgame scores the board keeps, and the
+     * score of its pawn structure, by how much material other than pawns
+     * is left.
      */
     @Override
-    public Evaluation evaluate(GameModel game) {
-        int whiteScore = 0;
-        int blackScore = 0;
-
-        game.getLegalMoves();
-        if (game.getGameOverStatus() == GameModel.LOSER) {
-            if (game.getTurn() == GameModel.WHITE) {
-                return new Evaluation(null, -10_000, GameModel.WHITE, 0, EXACT, null);
-            } else {
-                return new Evaluation(null, 10_000, GameModel.BLACK, 0, EXACT, null);
-            }
-        } else if (game.getGameOverStatus() == GameModel.DRAW) {
-            return new Evaluation(null, 0, Evaluation.TIE, 0, EXACT, null);
-        }
+    public int evaluateScore(GameModel game) {
+        BoardModel board = game.getBoard();
+        int phase = Math.min(MIDGAME_PHASE, getPhase(board));
+        int score = evaluatePacked(board);
 
-        for (ChessCoordinate coordinate : ChessCoordinate.values()) {
-            Piece piece = game.getBoard().getPieceOn(coordinate);
+        return (PieceSquareTable.getMidgame(score) * phase +
+                PieceSquareTable.getEndgame(score) * (MIDGAME_PHASE - phase)) / MIDGAME_PHASE;
+    }
 
-            if (piece != null) {
-                double value = Evaluator.getValue(piece);
-                value += readTable(piece, coordinate);
+    /**
+     * Evaluates the given board as packed middle game and endgame scores,
+     * see PieceSquareTable. Subclasses add their own terms to this score.
+     *
+     * @param board the board to evaluate.
+     * @return the packed score of the board, positive if white is better.
+     */
+    protected int evaluatePacked(BoardModel board) {
+        return PieceSquareTable.pack(board.getMidgameScore(), board.getEndgameScore()) +
+                getPawnScore(board);
+    }
 
-                if (piece.getColor() == 'w') {
-                    whiteScore += value;
-                } else {
-                    blackScore += value;
-                }
-            }
+    /**
+     * @return the packed pawn structure score of the board, from the pawn
+     * table if these pawns and kings were evaluated before.
+     */
+    private int getPawnScore(BoardModel board) {
+        long pawnHash = board.getPawnHashValue();
+        long entry = pawnTable.probe(pawnHash);
+        if (entry != ScoreTable.NO_ENTRY) {
+            return ScoreTable.getScore(entry);
         }
-        return new Evaluation(whiteScore - blackScore, 0);
-    }
 
-    private static double readTable(Piece piece, ChessCoordinate coordinate) {
-        int[] table = switch (piece) {
-            case WHITE_PAWN, BLACK_PAWN -> PAWN_VALUE_MAP;
-            case WHITE_KNIGHT, BLACK_KNIGHT -> KNIGHT_VALUE_MAP;
-            case WHITE_BISHOP, BLACK_BISHOP -> BISHOP_VALUE_MAP;
-            case WHITE_ROOK, BLACK_ROOK -> ROOK_VALUE_MAP;
-            case WHITE_QUEEN, BLACK_QUEEN -> QUEEN_VALUE_MAP;
-            case WHITE_KING, BLACK_KING -> KING_VALUE_MAP;
-            default -> throw new IllegalStateException("Piece is not of expected type");
-        };
-
-        int index = piece.getColor() == 'w' ? coordinate.getOndDimIndex() :
-                (8 * (7 - coordinate.getRank()) + coordinate.getFile());
-
-        return table[index];
+        int score = evaluatePawns(board);
+        pawnTable.store(pawnHash, score);
+        return score;
     }
 
     /**
-     * Returns a list of all the legal moves in this position, and they are sorted
-     * into this evaluators best guess from most-likely to be the best move, to least
-     * likely.
+     * Evaluates the passed, isolated, doubled and backward pawns of both
+     * sides, and the pawns that shield each king.
      *
-     * @param game     The game to get moves from.
-     * @param hashMove A previous found best move, null if none exists.
-     * @return the list of sorted legal moves.
+     * @return the packed pawn structure score, positive if white is better.
      */
-    @Override
-    public List<Movable> getSortedMoves(GameModel game, Movable hashMove) {
-        MoveList moveList = game.getLegalMoves();
-        List<Movable> legalMoves = new ArrayList<>();
-        moveList.forEach(legalMoves::add);
-
-        legalMoves.sort(new MoveComparator(game));
-        if (hashMove != null) {
-            if (legalMoves.remove(hashMove)) {
-                legalMoves.add(0, hashMove);
-            } else {
-                System.out.println("Hash Collision?");
-            }
-        }
-        return legalMoves;
+    private static int evaluatePawns(BoardModel board) {
+        long whitePawns = board.getPieceMap(Piece.WHITE_PAWN);
+        long blackPawns = board.getPieceMap(Piece.BLACK_PAWN);
+        long whiteAttacks = getPawnAttacks(whitePawns, true);
+        long blackAttacks = getPawnAttacks(blackPawns, false);
+
+        int whiteScore = evaluatePawns(whitePawns, blackPawns, blackAttacks, true) +
+                evaluateShield(board.getPieceMap(Piece.WHITE_KING), whitePawns, true);
+        int blackScore = evaluatePawns(blackPawns, whitePawns, whiteAttacks, false) +
+                evaluateShield(board.getPieceMap(Piece.BLACK_KING), blackPawns, false);
+        return whiteScore - blackScore;
     }
 
-    private record MoveComparator(GameModel game) implements Comparator<Movable> {
-
-        @Override
-        public int compare(Movable o1, Movable o2) {
-            return Integer.compare(evaluateMove(o1), evaluateMove(o2));
+    private static int evaluatePawns(long pawns, long enemyPawns, long enemyAttacks,
+                                     boolean isWhite) {
+        int midgame = 0;
+        int endgame = 0;
+
+        for (long remaining = pawns; remaining != 0; remaining &= remaining - 1) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            int file = square & 7;
+            int rank = square >>> 3;
+            long fileMask = FILE_A << file;
+            long adjacentFiles = ((fileMask & ~FILE_A) >>> 1) | ((fileMask & ~FILE_H) << 1);
+            long ranksAhead = getRanksAhead(rank, isWhite);
+
+            if ((enemyPawns & (fileMask | adjacentFiles) & ranksAhead) == 0) {
+                int relativeRank = isWhite ? rank : 7 - rank;
+                midgame += PASSED_PAWN_MIDGAME[relativeRank];
+                endgame += PASSED_PAWN_ENDGAME[relativeRank];
+            }
+            if ((pawns & fileMask & ranksAhead) != 0) {
+                midgame += DOUBLED_PAWN_MIDGAME;
+                endgame += DOUBLED_PAWN_ENDGAME;
+            }
+            if ((pawns & adjacentFiles) == 0) {
+                midgame += ISOLATED_PAWN_MIDGAME;
+                endgame += ISOLATED_PAWN_ENDGAME;
+            } else if ((pawns & adjacentFiles & ~ranksAhead) == 0 &&
+                    (enemyAttacks & 1L << (isWhite ? square + 8 : square - 8)) != 0) {
+                midgame += BACKWARD_PAWN_MIDGAME;
+                endgame += BACKWARD_PAWN_ENDGAME;
+            }
         }
 
-        private int evaluateMove(Movable move) {
-            int score = 0;
-
-            Piece movingPiece = move.getMovingPiece();
-
-            Piece capturedPiece = game.getBoard().getPieceOn(move.getEndCoordinate());
-
-            // If the move captures weight moves that capture with lower value pieces higher
-            if (capturedPiece != null) {
-                score = CAPTURE_BIAS + CAPTURED_PIECE_VALUE_MULTIPLIER * (Evaluator.getValue(
-                        capturedPiece)) - Evaluator.getValue(movingPiece);
-            }
+        return PieceSquareTable.pack(midgame, endgame);
+    }
 
-            if (move instanceof PromotionMove) {
-                switch (((PromotionMove) move).getPromotedPiece()) {
-                    case WHITE_QUEEN, BLACK_QUEEN -> score += QUEEN_SCORE;
-                    case WHITE_ROOK, BLACK_ROOK -> score += ROOK_SCORE;
-                    case WHITE_BISHOP, BLACK_BISHOP -> score += BISHOP_SCORE;
-                    case WHITE_KNIGHT, BLACK_KNIGHT -> score += KNIGHT_SCORE;
-                }
-            }
+    private static int evaluateShield(long king, long pawns, boolean isWhite) {
+        int square = Long.numberOfTrailingZeros(king);
+        int file = square & 7;
+        int rank = square >>> 3;
+        long fileMask = FILE_A << file;
+        long files = fileMask | ((fileMask & ~FILE_A) >>> 1) | ((fileMask & ~FILE_H) << 1);
+        long ranks = getRanksAhead(rank, isWhite) & ~getRanksAhead(isWhite ? rank + 2 :
+                                                                           rank - 2, isWhite);
+
+        return PieceSquareTable.pack(PAWN_SHIELD_MIDGAME * Long.bitCount(pawns & files & ranks),
+                                     0);
+    }
 
-            score += readTable(movingPiece, move.getEndCoordinate()) - readTable(movingPiece,
-                                                                                 move.getStartCoordinate());
+    /**
+     * @return the squares the given pawns of the given color attack.
+     */
+    static long getPawnAttacks(long pawns, boolean isWhite) {
+        if (isWhite) {
+            return ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+        }
+        return ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7);
+    }
 
-            return score;
+    /**
+     * @return the mask of every rank in front of the given rank, from the
+     * side of the given color.
+     */
+    private static long getRanksAhead(int rank, boolean isWhite) {
+        if (isWhite) {
+            return rank >= 7 ? 0 : -1L << 8 * (rank + 1);
         }
+        return rank <= 0 ? 0 : (1L << 8 * rank) - 1;
+    }
+
+    /**
+     * @return the phase of the game, MIDGAME_PHASE with every piece on the
+     * board, and 0 with only kings and pawns.
+     */
+    private static int getPhase(BoardModel board) {
+        int minorPieces = Long.bitCount(board.getPieceMap(Piece.WHITE_KNIGHT) |
+                                                board.getPieceMap(Piece.BLACK_KNIGHT) |
+                                                board.getPieceMap(Piece.WHITE_BISHOP) |
+                                                board.getPieceMap(Piece.BLACK_BISHOP));
+        int rooks = Long.bitCount(board.getPieceMap(Piece.WHITE_ROOK) |
+                                          board.getPieceMap(Piece.BLACK_ROOK));
+        int queens = Long.bitCount(board.getPieceMap(Piece.WHITE_QUEEN) |
+                                           board.getPieceMap(Piece.BLACK_QUEEN));
+        return minorPieces + 2 * rooks + 4 * queens;
     }
 }
@@ -0,0 +1,30 @@
+package chess.model.chessai;
+
+/**
+ * The network arithmetic one neuron at a time.
+ */
+class ScalarNnueKernel implements NnueKernel {
+
+    @Override
+    public void add(short[] values, short[] weights, int offset) {
+        for (int neuron = 0; neuron < values.length; neuron++) {
+            values[neuron] += weights[offset + neuron];
+        }
+    }
+
+    @Override
+    public void subtract(short[] values, short[] weights, int offset) {
+        for (int neuron = 0; neuron < values.length; neuron++) {
+            values[neuron] -= weights[offset + neuron];
+        }
+    }
+
+    @Override
+    public int forward(short[] neurons, short[] weights, int activationMax) {
+        int sum = 0;
+        for (int neuron = 0; neuron < neurons.length; neuron++) {
+            sum += Math.max(0, Math.min(activationMax, neurons[neuron])) * weights[neuron];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,85 @@
+package chess.model.chessai;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed size table that maps a 64 bit hash to a 32 bit score. It is
+ * the pawn table of the PositionEvaluator, keyed on the pawn hash, and
+ * the cache of the CachedEvaluator, keyed on the zobrist hash. Every
+ * entry is packed into a single long, the upper 32 bits of the hash and
+ * the score, so like the transposition table, probes and stores do not
+ * lock.
+ */
+public class ScoreTable {
+
+    /**
+     * The value returned by probe when no entry exists for a hash.
+     */
+    public static final long NO_ENTRY = 0L;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int KEY_SHIFT = 32;
+    private static final long SCORE_MASK = 0xFFFF_FFFFL;
+
+    private final long[] slots;
+    private final int indexMask;
+
+    /**
+     * Creates a table that uses at most the given number of megabytes.
+     * The number of slots is the largest power of two that fits.
+     *
+     * @param megabytes the maximum size of this table in megabytes.
+     */
+    public ScoreTable(int megabytes) {
+        int numSlots = TranspositionTable.numSlots(megabytes);
+        this.slots = new long[numSlots];
+        this.indexMask = numSlots - 1;
+    }
+
+    /**
+     * Get the entry stored for the given hash.
+     *
+     * @param hash the hash to find.
+     * @return the packed entry, or NO_ENTRY if this hash is not in the table.
+     */
+    public long probe(long hash) {
+        long entry = (long) SLOTS.getOpaque(slots, index(hash));
+        if (entry == NO_ENTRY || (entry >>> KEY_SHIFT) != (hash >>> KEY_SHIFT)) {
+            return NO_ENTRY;
+        }
+        return entry;
+    }
+
+    /**
+     * Store the score of the given hash, replacing the previous entry of
+     * its slot.
+     *
+     * @param hash  the hash the score belongs to.
+     * @param score the score to store.
+     */
+    public void store(long hash, int score) {
+        long entry = (hash >>> KEY_SHIFT) << KEY_SHIFT | (score & SCORE_MASK);
+        SLOTS.setOpaque(slots, index(hash), entry);
+    }
+
+    /**
+     * Remove every entry from this table.
+     */
+    public void clear() {
+        Arrays.fill(slots, NO_ENTRY);
+    }
+
+    private int index(long hash) {
+        return (int) hash & indexMask;
+    }
+
+    /**
+     * @return the score of the entry.
+     */
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+}
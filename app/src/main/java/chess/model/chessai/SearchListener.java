@@ -0,0 +1,16 @@
+package chess.model.chessai;
+
+/**
+ * Receives the statistics of a search. The listener is called on the
+ * main search thread, so it should return quickly.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Called once the main search thread finished an iteration.
+     *
+     * @param stats the statistics of that iteration.
+     */
+    void iterationFinished(SearchStats stats);
+}
@@ -0,0 +1,187 @@
+package chess.model.chessai;
+
+import chess.model.moves.Movable;
+
+import java.util.List;
+
+/**
+ * The statistics of a single finished iteration of the main search
+ * thread. Node and table counts are of that iteration only, except
+ * totalNodes, which counts every node of every thread since the search
+ * started.
+ */
+public class SearchStats {
+
+    /**
+     * The number of buckets of the cutoff histogram. The last bucket
+     * holds every cutoff at this move index or later.
+     */
+    public static final int CUTOFF_HISTOGRAM_SIZE = 8;
+
+    private final int depth;
+    private final int selDepth;
+    private final int score;
+    private final long nodes;
+    private final long quiescenceNodes;
+    private final long totalNodes;
+    private final long elapsedMillis;
+    private final long transpositionProbes;
+    private final long transpositionHits;
+    private final long transpositionCutoffs;
+    private final long[] cutoffHistogram;
+    private final double effectiveBranchingFactor;
+    private final int hashfull;
+    private final List<Movable> principalVariation;
+
+    SearchStats(int depth, int selDepth, int score, long nodes, long quiescenceNodes,
+                long totalNodes, long elapsedMillis, long transpositionProbes,
+                long transpositionHits, long transpositionCutoffs, long[] cutoffHistogram,
+                double effectiveBranchingFactor, int hashfull,
+                List<Movable> principalVariation) {
+        this.depth = depth;
+        this.selDepth = selDepth;
+        this.score = score;
+        this.nodes = nodes;
+        this.quiescenceNodes = quiescenceNodes;
+        this.totalNodes = totalNodes;
+        this.elapsedMillis = elapsedMillis;
+        this.transpositionProbes = transpositionProbes;
+        this.transpositionHits = transpositionHits;
+        this.transpositionCutoffs = transpositionCutoffs;
+        this.cutoffHistogram = cutoffHistogram.clone();
+        this.effectiveBranchingFactor = effectiveBranchingFactor;
+        this.hashfull = hashfull;
+        this.principalVariation = List.copyOf(principalVariation);
+    }
+
+    /**
+     * @return the depth of this iteration.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the deepest ply reached in this iteration, including quiescence.
+     */
+    public int getSelDepth() {
+        return selDepth;
+    }
+
+    /**
+     * @return the score of the root, from the perspective of the player to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return the nodes the main thread searched in this iteration.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the nodes of this iteration that were quiescence nodes.
+     */
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    /**
+     * @return the nodes every thread searched since the search started.
+     */
+    public long getTotalNodes() {
+        return totalNodes;
+    }
+
+    /**
+     * @return the time in milliseconds since the search started.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the nodes per second of every thread since the search started.
+     */
+    public long getNodesPerSecond() {
+        return elapsedMillis == 0 ? totalNodes * 1_000 : totalNodes * 1_000 / elapsedMillis;
+    }
+
+    /**
+     * @return the number of transposition table probes.
+     */
+    public long getTranspositionProbes() {
+        return transpositionProbes;
+    }
+
+    /**
+     * @return the number of probes that found an entry.
+     */
+    public long getTranspositionHits() {
+        return transpositionHits;
+    }
+
+    /**
+     * @return the number of hits whose score cut off the search.
+     */
+    public long getTranspositionCutoffs() {
+        return transpositionCutoffs;
+    }
+
+    /**
+     * @return the number of beta cutoffs at each move index.
+     */
+    public long[] getCutoffHistogram() {
+        return cutoffHistogram.clone();
+    }
+
+    /**
+     * @return the fraction of beta cutoffs caused by the first move searched.
+     */
+    public double getFirstMoveCutoffRate() {
+        long cutoffs = 0;
+        for (long count : cutoffHistogram) {
+            cutoffs += count;
+        }
+        return cutoffs == 0 ? 0 : (double) cutoffHistogram[0] / cutoffs;
+    }
+
+    /**
+     * @return the nodes of this iteration divided by the nodes of the previous iteration.
+     */
+    public double getEffectiveBranchingFactor() {
+        return effectiveBranchingFactor;
+    }
+
+    /**
+     * @return how full the transposition table is, in permille.
+     */
+    public int getHashfull() {
+        return hashfull;
+    }
+
+    /**
+     * @return the principal variation, starting with the best move.
+     */
+    public List<Movable> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format(
+                "depth %d seldepth %d score %d nodes %d qnodes %d time %d nps %d hashfull %d " +
+                        "tthits %d/%d ttcuts %d firstcut %.2f ebf %.2f pv", depth, selDepth,
+                score, nodes, quiescenceNodes, elapsedMillis, getNodesPerSecond(), hashfull,
+                transpositionHits, transpositionProbes, transpositionCutoffs,
+                getFirstMoveCutoffRate(), effectiveBranchingFactor));
+        for (Movable move : principalVariation) {
+            result.append(' ').append(move);
+        }
+        return result.toString();
+    }
+}
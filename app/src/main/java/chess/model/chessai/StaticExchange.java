@@ -0,0 +1,120 @@
+package chess.model.chessai;
+
+import chess.model.BoardModel;
+import chess.model.MoveGenerator;
+import chess.model.moves.Movable;
+import chess.model.moves.Move;
+import chess.model.pieces.Piece;
+
+import static chess.model.GameModel.WHITE;
+import static chess.model.pieces.Piece.*;
+
+/**
+ * A static exchange evaluation (SEE) finds the material result of every
+ * capture on a single square, if both sides always recapture with their
+ * least valuable piece, and either side may stop capturing when it would
+ * lose material. Pins and checks are ignored.
+ */
+public abstract class StaticExchange {
+
+    /**
+     * The value of a king in an exchange. Capturing a king ends any
+     * exchange, so a king only recaptures on an undefended square.
+     */
+    private static final int KING_VALUE = 20_000;
+
+    /**
+     * The pieces of each color, from the least to the most valuable.
+     */
+    private static final Piece[] WHITE_ATTACKERS = {
+            WHITE_PAWN, WHITE_KNIGHT, WHITE_BISHOP, WHITE_ROOK, WHITE_QUEEN, WHITE_KING};
+    private static final Piece[] BLACK_ATTACKERS = {
+            BLACK_PAWN, BLACK_KNIGHT, BLACK_BISHOP, BLACK_ROOK, BLACK_QUEEN, BLACK_KING};
+
+    /**
+     * Evaluate the material gain of the given move for the player that
+     * makes it, in the same units as Evaluator.getValue.
+     *
+     * @param board the board the move is made on.
+     * @param move  a legal move on the given board.
+     * @return the material the moving player gains, negative if they lose material.
+     */
+    public static int evaluate(BoardModel board, Movable move) {
+        return evaluate(board, Move.of(move, board));
+    }
+
+    /**
+     * Evaluate the material gain of the given move in the int form of
+     * Move, for the player that makes it.
+     *
+     * @param board the board the move is made on.
+     * @param move  a legal move on the given board.
+     * @return the material the moving player gains, negative if they lose material.
+     */
+    public static int evaluate(BoardModel board, int move) {
+        int square = Move.getTo(move);
+        long occupancy = board.getOccupancyMap() ^ (1L << Move.getFrom(move));
+
+        int[] gain = new int[32];
+        Piece captured = Move.getCapturedPiece(move);
+        Piece attacker = Move.getMovingPiece(move);
+
+        if (Move.isEnPassant(move)) {
+            occupancy ^= 1L << Move.getCaptureSquare(move);
+        }
+
+        gain[0] = captured == null ? 0 : getValue(captured);
+        if (Move.isPromotion(move)) {
+            attacker = Move.getPromotedPiece(move);
+            gain[0] += getValue(attacker) - getValue(Move.getMovingPiece(move));
+        }
+
+        long attackers = MoveGenerator.getAttackersTo(board, square, occupancy);
+        boolean whiteToCapture = attacker.getColor() != WHITE;
+        int depth = 0;
+
+        while (true) {
+            Piece nextAttacker = leastValuableAttacker(board, attackers,
+                                                       whiteToCapture ? WHITE_ATTACKERS :
+                                                               BLACK_ATTACKERS);
+            if (nextAttacker == null) {
+                break;
+            }
+
+            // The gain if the last attacker is captured, and the exchange stops after
+            gain[depth + 1] = getValue(attacker) - gain[depth];
+            if (Math.max(-gain[depth], gain[depth + 1]) < 0) {
+                // The capture can not change the result of the exchange
+                break;
+            }
+            depth++;
+
+            // Remove the attacker, this reveals any sliding piece behind it
+            occupancy ^= Long.lowestOneBit(attackers & board.getPieceMap(nextAttacker));
+            attackers = MoveGenerator.getAttackersTo(board, square, occupancy);
+            attacker = nextAttacker;
+            whiteToCapture = !whiteToCapture;
+        }
+
+        // Either side can stop capturing, when continuing would lose material
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    private static Piece leastValuableAttacker(BoardModel board, long attackers,
+                                               Piece[] pieces) {
+        for (Piece piece : pieces) {
+            if ((attackers & board.getPieceMap(piece)) != 0) {
+                return piece;
+            }
+        }
+        return null;
+    }
+
+    private static int getValue(Piece piece) {
+        return piece == WHITE_KING || piece == BLACK_KING ? KING_VALUE : Evaluator.getValue(piece);
+    }
+}
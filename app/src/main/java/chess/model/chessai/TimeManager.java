@@ -0,0 +1,209 @@
+package chess.model.chessai;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * This class decides how long a single search may take. It has two
+ * limits:
+ *
+ * <ul>
+ *     <li>The soft limit is checked between iterations of iterative
+ *     deepening. Once it has passed, no new iteration is started.</li>
+ *     <li>The hard limit is polled by the search itself, and aborts the
+ *     current iteration once it has passed.</li>
+ * </ul>
+ * <p>
+ * When the best move changes between iterations the position is
+ * unstable, and the soft limit is extended, but never past the hard
+ * limit.
+ * <p>
+ * While pondering, the search runs before the opponent has moved, and
+ * neither limit applies. The clock only starts on a ponder hit, when
+ * the opponent makes the expected move.
+ */
+public class TimeManager {
+
+    /**
+     * The number of moves the remaining time is split over, when the
+     * time control does not say how many moves are left.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * The hard limit is at most this many times the soft limit.
+     */
+    private static final int HARD_LIMIT_FACTOR = 4;
+
+    /**
+     * The time kept back for the overhead of making the move.
+     */
+    private static final long MOVE_OVERHEAD = 20;
+
+    /**
+     * The soft limit is extended by this fraction of the original soft
+     * limit each time the best move changes.
+     */
+    private static final double INSTABILITY_EXTENSION = 0.5;
+
+    private final boolean limited;
+    private final long softLimit;
+    private final long hardLimit;
+
+    private volatile long startTime;
+    private volatile long softDeadline;
+    private volatile long hardDeadline;
+    private volatile boolean pondering;
+    private volatile boolean stopped;
+
+    private TimeManager(boolean limited, long softLimit, long hardLimit) {
+        this.limited = limited;
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+    }
+
+    /**
+     * Creates a time manager that never stops a search.
+     *
+     * @return a time manager without limits.
+     */
+    public static TimeManager unlimited() {
+        return new TimeManager(false, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a time manager for a fixed time per move. The search may
+     * use the whole time, but does not start an iteration after half of
+     * it, as that iteration is unlikely to finish.
+     *
+     * @param moveTime the time for this move in milliseconds.
+     * @return a time manager for the given move time.
+     */
+    public static TimeManager forMoveTime(long moveTime) {
+        if (moveTime <= 0) {
+            throw new IllegalArgumentException("Move time must be positive: " + moveTime);
+        }
+        return new TimeManager(true, Math.max(1, moveTime / 2), moveTime);
+    }
+
+    /**
+     * Creates a time manager for a move in a game with a clock. The
+     * remaining time is split over the moves left until the next time
+     * control, and most of the increment is added to every move.
+     *
+     * @param remaining the time left on the clock in milliseconds.
+     * @param increment the time added to the clock after every move in milliseconds.
+     * @param movesToGo the moves left until the next time control, or 0 if unknown.
+     * @return a time manager for the given clock.
+     */
+    public static TimeManager forTimeControl(long remaining, long increment, int movesToGo) {
+        if (remaining <= 0 || increment < 0 || movesToGo < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid time control: " + remaining + " " + increment + " " + movesToGo);
+        }
+
+        long available = Math.max(1, remaining - MOVE_OVERHEAD);
+        int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+
+        long softLimit = available / moves + increment * 3 / 4;
+        long hardLimit = Math.min(softLimit * HARD_LIMIT_FACTOR, available * 3 / 4);
+        hardLimit = Math.max(1, hardLimit);
+        return new TimeManager(true, Math.max(1, Math.min(softLimit, hardLimit)), hardLimit);
+    }
+
+    /**
+     * Start the clock of this search.
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        if (limited) {
+            softDeadline = startTime + NANOSECONDS.convert(softLimit, MILLISECONDS);
+            hardDeadline = startTime + NANOSECONDS.convert(hardLimit, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Search without a limit until ponderHit is called.
+     */
+    public void startPondering() {
+        startTime = System.nanoTime();
+        pondering = true;
+    }
+
+    /**
+     * The opponent made the expected move, start the clock of the
+     * search that was pondering.
+     */
+    public void ponderHit() {
+        start();
+        pondering = false;
+    }
+
+    /**
+     * @return if the clock has not started, because the search is pondering.
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Stop the search as soon as possible, regardless of the limits.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return if stop was called.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return if no new iteration should be started.
+     */
+    public boolean isSoftLimitReached() {
+        return stopped || limited && !pondering && System.nanoTime() - softDeadline >= 0;
+    }
+
+    /**
+     * @return if the search must stop immediately.
+     */
+    public boolean isHardLimitReached() {
+        return stopped || limited && !pondering && System.nanoTime() - hardDeadline >= 0;
+    }
+
+    /**
+     * Give the search more time, because the best move changed between
+     * two iterations.
+     */
+    public void extendSoftLimit() {
+        if (limited) {
+            long extension = NANOSECONDS.convert((long) (softLimit * INSTABILITY_EXTENSION),
+                                                 MILLISECONDS);
+            softDeadline = Math.min(softDeadline + extension, hardDeadline);
+        }
+    }
+
+    /**
+     * @return the soft limit in milliseconds, before any extension.
+     */
+    public long getSoftLimit() {
+        return softLimit;
+    }
+
+    /**
+     * @return the hard limit in milliseconds.
+     */
+    public long getHardLimit() {
+        return hardLimit;
+    }
+
+    /**
+     * @return the time in milliseconds since the search started.
+     */
+    public long getElapsedTime() {
+        return MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+    }
+}
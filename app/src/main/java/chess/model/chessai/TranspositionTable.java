@@ -0,0 +1,254 @@
+package chess.model.chessai;
+
+import chess.model.moves.Movable;
+import chess.model.moves.Move;
+import chess.model.moves.PromotionMove;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import static chess.model.chessai.Evaluation.EXACT;
+
+/**
+ * A fixed size transposition table that maps a position hash to the
+ * result of a previous search of that position. The table is a
+ * power-of-two sized array of primitive longs, and every entry is
+ * packed into a single slot in the following format:
+ *
+ * <ul>
+ *     <li>Bits 0-15: the best move (from, to and promotion piece)</li>
+ *     <li>Bits 16-31: the score as a signed 16 bit number</li>
+ *     <li>Bits 32-39: the depth the score was searched to</li>
+ *     <li>Bits 40-41: the bound of the score, 0 marks an empty slot</li>
+ *     <li>Bits 42-45: the generation of the search that stored the entry</li>
+ *     <li>Bits 48-63: the upper 16 bits of the position hash</li>
+ * </ul>
+ * <p>
+ * The slot index is taken from the low bits of the hash, and the upper
+ * bits are stored in the entry so a probe can verify that the entry
+ * belongs to the probed position. Probes and stores do not lock, every
+ * slot is read and written as a single atomic long, so a racing store
+ * can only replace an entry, never tear it.
+ * <p>
+ * Every search starts a new generation, so entries of earlier searches
+ * are replaced by any new result instead of being kept for their depth.
+ */
+public class TranspositionTable {
+
+    /**
+     * The value returned by probe when no entry exists for a position.
+     */
+    public static final long NO_ENTRY = 0L;
+
+    /**
+     * The size of the table used when no size is given.
+     */
+    public static final int DEFAULT_SIZE_MB = 32;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int MOVE_SHIFT = 0;
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+    private static final int KEY_SHIFT = 48;
+
+    private static final long MOVE_MASK = 0xFFFFL;
+    private static final long SCORE_MASK = 0xFFFFL;
+    private static final long DEPTH_MASK = 0xFFL;
+    private static final long BOUND_MASK = 0b11L;
+    private static final int GENERATION_MASK = 0xF;
+
+    private static final int MAX_DEPTH = (int) DEPTH_MASK;
+
+    /**
+     * The slots of this table. Each slot holds one packed entry.
+     */
+    private final long[] slots;
+
+    /**
+     * The mask that maps a hash to a slot index.
+     */
+    private final int indexMask;
+
+    /**
+     * The generation of the current search, stored with every entry.
+     */
+    private int generation;
+
+    /**
+     * Creates a table that uses at most the given number of megabytes.
+     * The number of slots is the largest power of two that fits.
+     *
+     * @param megabytes the maximum size of this table in megabytes.
+     */
+    public TranspositionTable(int megabytes) {
+        int numSlots = numSlots(megabytes);
+        this.slots = new long[numSlots];
+        this.indexMask = numSlots - 1;
+    }
+
+    /**
+     * Get the number of long slots of a table of the given size, the
+     * largest power of two that fits. Every table of the search, which
+     * index their slots with the low bits of a hash, is sized by this.
+     *
+     * @param megabytes the maximum size of the table in megabytes.
+     * @return the number of slots of the table.
+     */
+    static int numSlots(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Table size must be positive: " + megabytes);
+        }
+
+        long maxSlots = ((long) megabytes << 20) / Long.BYTES;
+        return (int) Long.highestOneBit(Math.min(maxSlots, 1L << 30));
+    }
+
+    /**
+     * Get the entry stored for the given position hash.
+     *
+     * @param hash the hash of the position to find.
+     * @return the packed entry, or NO_ENTRY if this position is not in the table.
+     */
+    public long probe(long hash) {
+        long entry = (long) SLOTS.getOpaque(slots, index(hash));
+        if (entry == NO_ENTRY || (entry >>> KEY_SHIFT) != (hash >>> KEY_SHIFT)) {
+            return NO_ENTRY;
+        }
+        return entry;
+    }
+
+    /**
+     * Start a new generation of entries. This should be called before
+     * every search, so the entries of earlier searches are aged out.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Store the given search result for the given position hash. An entry
+     * of the same position from the current search is only replaced if
+     * the new depth is at least as deep as the previous one, or the new
+     * score is exact. Any other entry is always replaced.
+     *
+     * @param hash  the hash of the position.
+     * @param score the score of the position.
+     * @param depth the depth the position was searched to.
+     * @param bound the bound of the score.
+     * @param move  the best move found in the position, may be null.
+     */
+    public void store(long hash, int score, int depth, byte bound, Movable move) {
+        store(hash, score, depth, bound, packMove(move));
+    }
+
+    /**
+     * Store the given search result for the given position hash, with the
+     * best move in the int form of Move. Only the key of the move is stored.
+     *
+     * @param hash  the hash of the position.
+     * @param score the score of the position.
+     * @param depth the depth the position was searched to.
+     * @param bound the bound of the score.
+     * @param move  the best move found in the position, may be NO_MOVE.
+     */
+    public void store(long hash, int score, int depth, byte bound, int move) {
+        int index = index(hash);
+        long previous = (long) SLOTS.getOpaque(slots, index);
+        if (previous != NO_ENTRY && (previous >>> KEY_SHIFT) == (hash >>> KEY_SHIFT) &&
+                getGeneration(previous) == generation && getDepth(previous) > depth &&
+                bound != EXACT) {
+            return;
+        }
+
+        long entry = (hash >>> KEY_SHIFT) << KEY_SHIFT;
+        entry |= (Move.getKey(move) & MOVE_MASK) << MOVE_SHIFT;
+        entry |= (Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)) & SCORE_MASK)
+                << SCORE_SHIFT;
+        entry |= (Math.max(0, Math.min(MAX_DEPTH, depth)) & DEPTH_MASK) << DEPTH_SHIFT;
+        entry |= ((bound + 1L) & BOUND_MASK) << BOUND_SHIFT;
+        entry |= (long) generation << GENERATION_SHIFT;
+
+        SLOTS.setOpaque(slots, index, entry);
+    }
+
+    /**
+     * Remove every entry from this table.
+     */
+    public void clear() {
+        Arrays.fill(slots, NO_ENTRY);
+    }
+
+    /**
+     * @return the number of slots in this table.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Approximates how full this table is by sampling the first
+     * thousand slots.
+     *
+     * @return the number of used slots per thousand.
+     */
+    public int hashfull() {
+        int sampleSize = Math.min(1000, slots.length);
+        int used = 0;
+        for (int index = 0; index < sampleSize; index++) {
+            if ((long) SLOTS.getOpaque(slots, index) != NO_ENTRY) {
+                used++;
+            }
+        }
+        return used * 1000 / sampleSize;
+    }
+
+    private int index(long hash) {
+        return (int) hash & indexMask;
+    }
+
+    public static int getScore(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static byte getBound(long entry) {
+        return (byte) (((entry >>> BOUND_SHIFT) & BOUND_MASK) - 1);
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    public static int getMove(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+    }
+
+    /**
+     * Packs the given move into 16 bits. The lowest 6 bits are the
+     * starting square, the next 6 are the ending square, and the top
+     * 4 are the promoted piece, or 0 if this is not a promotion. This
+     * is the key of the int form of Move.
+     *
+     * @param move the move to pack.
+     * @return the packed move, 0 if move is null.
+     */
+    public static int packMove(Movable move) {
+        if (move == null) {
+            return 0;
+        }
+
+        int packed = move.getStartCoordinate().getOndDimIndex();
+        packed |= move.getEndCoordinate().getOndDimIndex() << 6;
+        if (move instanceof PromotionMove promotion) {
+            packed |= promotion.getPromotedPiece().getUniqueIdx() << 12;
+        }
+        return packed;
+    }
+}
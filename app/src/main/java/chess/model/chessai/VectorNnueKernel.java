@@ -0,0 +1,77 @@
+package chess.model.chessai;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The network arithmetic on the widest vectors of the CPU. Neurons that
+ * do not fill a whole vector are done one at a time. The clipped neurons
+ * and their weights are widened to ints before they are multiplied, so
+ * the sum is exact like the scalar kernel.
+ */
+class VectorNnueKernel implements NnueKernel {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * The ints of the same width as SHORTS, so every vector of shorts
+     * widens to two vectors of ints.
+     */
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, SHORTS.vectorShape());
+
+    @Override
+    public void add(short[] values, short[] weights, int offset) {
+        int bound = SHORTS.loopBound(values.length);
+        int neuron = 0;
+        for (; neuron < bound; neuron += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, neuron)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + neuron))
+                    .intoArray(values, neuron);
+        }
+        for (; neuron < values.length; neuron++) {
+            values[neuron] += weights[offset + neuron];
+        }
+    }
+
+    @Override
+    public void subtract(short[] values, short[] weights, int offset) {
+        int bound = SHORTS.loopBound(values.length);
+        int neuron = 0;
+        for (; neuron < bound; neuron += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, neuron)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + neuron))
+                    .intoArray(values, neuron);
+        }
+        for (; neuron < values.length; neuron++) {
+            values[neuron] -= weights[offset + neuron];
+        }
+    }
+
+    @Override
+    public int forward(short[] neurons, short[] weights, int activationMax) {
+        int bound = SHORTS.loopBound(neurons.length);
+        IntVector sums = IntVector.zero(INTS);
+        int neuron = 0;
+        for (; neuron < bound; neuron += SHORTS.length()) {
+            ShortVector activations = ShortVector.fromArray(SHORTS, neurons, neuron)
+                    .max((short) 0).min((short) activationMax);
+            ShortVector neuronWeights = ShortVector.fromArray(SHORTS, weights, neuron);
+            for (int part = 0; part < 2; part++) {
+                IntVector wideActivations = (IntVector) activations.convertShape(
+                        VectorOperators.S2I, INTS, part);
+                IntVector wideWeights = (IntVector) neuronWeights.convertShape(
+                        VectorOperators.S2I, INTS, part);
+                sums = sums.add(wideActivations.mul(wideWeights));
+            }
+        }
+
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; neuron < neurons.length; neuron++) {
+            sum += Math.max(0, Math.min(activationMax, neurons[neuron])) * weights[neuron];
+        }
+        return sum;
+    }
+}
@@ -1,8 +1,6 @@
 package chess.model.moves;
 
 import chess.ChessCoordinate;
-import chess.model.BoardModel;
-import chess.model.Zobrist;
 import chess.model.pieces.Piece;
 
 import static chess.ChessCoordinate.*;
@@ -20,9 +18,6 @@ public enum CastlingMove implements Movable {
     private final ChessCoordinate kingEnd;
     private final ChessCoordinate rookStart;
     private final ChessCoordinate rookEnd;
-    private final long kingMoveMask;
-    private final long rookMoveMask;
-    private final long occupancyMoveMask;
 
     CastlingMove(ChessCoordinate kingStart, ChessCoordinate kingEnd, ChessCoordinate rookStart,
                  ChessCoordinate rookEnd, Piece king, Piece rook) {
@@ -32,34 +27,6 @@ public enum CastlingMove implements Movable {
         this.kingEnd = kingEnd;
         this.rookStart = rookStart;
         this.rookEnd = rookEnd;
-        this.kingMoveMask = kingStart.getBitMask() | kingEnd.getBitMask();
-        this.rookMoveMask = rookStart.getBitMask() | rookEnd.getBitMask();
-        this.occupancyMoveMask = kingMoveMask | rookMoveMask;
-    }
-
-    @Override
-    public BoardModel.BoardState nextState(BoardModel.BoardState state) {
-        long[] pieceMaps = state.pieceMaps().clone();
-        long white = state.white();
-        long black = state.black();
-        long occupied = state.occupied();
-        pieceMaps[king.ordinal()] ^= kingMoveMask;
-        pieceMaps[rook.ordinal()] ^= rookMoveMask;
-
-        long deltaHash = 0x0L;
-
-        deltaHash = Zobrist.flipPiece(king, kingStart, deltaHash);
-        deltaHash = Zobrist.flipPiece(king, kingEnd, deltaHash);
-        deltaHash = Zobrist.flipPiece(rook, rookStart, deltaHash);
-        deltaHash = Zobrist.flipPiece(rook, rookEnd, deltaHash);
-
-        switch (this) {
-            case WHITE_KING_SIDE_CASTLE, WHITE_QUEEN_SIDE_CASTLE -> white ^= occupancyMoveMask;
-            case BLACK_KING_SIDE_CASTLE, BLACK_QUEEN_SIDE_CASTLE -> black ^= occupancyMoveMask;
-        }
-
-        return new BoardModel.BoardState(pieceMaps, white, black, occupied ^ occupancyMoveMask,
-                                         deltaHash);
     }
 
     @Override
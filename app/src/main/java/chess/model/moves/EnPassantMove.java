@@ -1,8 +1,6 @@
 package chess.model.moves;
 
 import chess.ChessCoordinate;
-import chess.model.BoardModel;
-import chess.model.Zobrist;
 import chess.model.pieces.Piece;
 
 public class EnPassantMove implements Movable {
@@ -21,33 +19,6 @@ public class EnPassantMove implements Movable {
         this.captureStart = captureStart;
     }
 
-    @Override
-    public BoardModel.BoardState nextState(BoardModel.BoardState state) {
-        long[] pieceMaps = state.pieceMaps().clone();
-        long moveMask = start | end;
-        long white = state.white();
-        long black = state.black();
-
-        if (moving == Piece.WHITE_PAWN) {
-            white ^= moveMask;
-            black ^= captureStart;
-        } else {
-            black ^= moveMask;
-            white ^= captureStart;
-        }
-
-        pieceMaps[moving.ordinal()] ^= moveMask;
-        pieceMaps[captured.ordinal()] ^= captureStart;
-
-        long deltaHash = 0x0L;
-        deltaHash = Zobrist.flipPiece(moving, ChessCoordinate.getChessCoordinate(start), deltaHash);
-        deltaHash = Zobrist.flipPiece(moving, ChessCoordinate.getChessCoordinate(end), deltaHash);
-        deltaHash = Zobrist.flipPiece(captured, ChessCoordinate.getChessCoordinate(captureStart),
-                                      deltaHash);
-
-        return new BoardModel.BoardState(pieceMaps, white, black, white | black, deltaHash);
-    }
-
     @Override
     public Piece getMovingPiece() {
         return moving;
@@ -0,0 +1,255 @@
+package chess.model.moves;
+
+import chess.ChessCoordinate;
+import chess.model.BoardModel;
+import chess.model.pieces.Piece;
+
+import static chess.model.GameModel.WHITE;
+import static chess.model.moves.CastlingMove.*;
+import static chess.model.pieces.Piece.*;
+
+/**
+ * This class encodes a move in a single int, so moves can be generated,
+ * stored and compared without creating an object per move. The bits of
+ * a move are as follows:
+ *
+ * <ul>
+ *     <li>Bits 0-5 are the starting square</li>
+ *     <li>Bits 6-11 are the ending square</li>
+ *     <li>Bits 12-15 are the promoted piece, 0 if this is not a promotion</li>
+ *     <li>Bits 16-19 are the moving piece</li>
+ *     <li>Bits 20-23 are the captured piece, 0 if nothing is captured</li>
+ *     <li>Bits 24-25 are the flag, normal, en passant or castling</li>
+ * </ul>
+ * <p>
+ * Pieces are stored by their unique index, and squares by their one
+ * dimensional index. The lowest 16 bits are enough to identify a move in
+ * a given position, they are the key of the move. A move is only valid
+ * in the position it was created in, as it includes the captured piece.
+ */
+public abstract class Move {
+
+    /**
+     * The value that is not a move. A null move is stored as NO_MOVE.
+     */
+    public static final int NO_MOVE = 0;
+
+    /**
+     * The flags of a move.
+     */
+    public static final int NORMAL = 0;
+    public static final int EN_PASSANT = 1;
+    public static final int CASTLING = 2;
+
+    /**
+     * The mask of the bits that identify a move in a position.
+     */
+    public static final int KEY_MASK = 0xFFFF;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+    private static final int FLAG_MASK = 0x3;
+
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTED_SHIFT = 12;
+    private static final int MOVING_SHIFT = 16;
+    private static final int CAPTURED_SHIFT = 20;
+    private static final int FLAG_SHIFT = 24;
+
+    private static final Piece[] PIECES = Piece.values();
+
+    /**
+     * Create a move from its parts.
+     *
+     * @param from     the starting square.
+     * @param to       the ending square.
+     * @param moving   the unique index of the moving piece.
+     * @param captured the unique index of the captured piece, 0 if none.
+     * @param promoted the unique index of the promoted piece, 0 if none.
+     * @param flag     NORMAL, EN_PASSANT or CASTLING.
+     * @return the move.
+     */
+    public static int create(int from, int to, int moving, int captured, int promoted,
+                             int flag) {
+        return from | to << TO_SHIFT | promoted << PROMOTED_SHIFT | moving << MOVING_SHIFT |
+                captured << CAPTURED_SHIFT | flag << FLAG_SHIFT;
+    }
+
+    /**
+     * Create the int form of the given move, which must be legal on the
+     * given board.
+     *
+     * @param move  the move, may be null.
+     * @param board the board the move is made on.
+     * @return the int form of the move, or NO_MOVE if move is null.
+     */
+    public static int of(Movable move, BoardModel board) {
+        if (move == null) {
+            return NO_MOVE;
+        }
+
+        int from = move.getStartCoordinate().getOndDimIndex();
+        int to = move.getEndCoordinate().getOndDimIndex();
+        int moving = move.getMovingPiece().getUniqueIdx();
+
+        if (move instanceof CastlingMove) {
+            return create(from, to, moving, 0, 0, CASTLING);
+        } else if (move instanceof EnPassantMove) {
+            int captured = move.getMovingPiece() == WHITE_PAWN ? BLACK_PAWN.getUniqueIdx() :
+                    WHITE_PAWN.getUniqueIdx();
+            return create(from, to, moving, captured, 0, EN_PASSANT);
+        }
+
+        Piece capturedPiece = board.getPieceOn(to);
+        int captured = capturedPiece == null ? 0 : capturedPiece.getUniqueIdx();
+        int promoted = move instanceof PromotionMove promotion ?
+                promotion.getPromotedPiece().getUniqueIdx() : 0;
+        return create(from, to, moving, captured, promoted, NORMAL);
+    }
+
+    /**
+     * Create the object form of the given move.
+     *
+     * @param move the move.
+     * @return the object form of the move, or null if move is NO_MOVE.
+     */
+    public static Movable toMovable(int move) {
+        if (move == NO_MOVE) {
+            return null;
+        }
+
+        Piece moving = getMovingPiece(move);
+        long start = 1L << getFrom(move);
+        long end = 1L << getTo(move);
+
+        if (isCastling(move)) {
+            return switch (ChessCoordinate.getChessCoordinate(getTo(move))) {
+                case G1 -> WHITE_KING_SIDE_CASTLE;
+                case C1 -> WHITE_QUEEN_SIDE_CASTLE;
+                case G8 -> BLACK_KING_SIDE_CASTLE;
+                case C8 -> BLACK_QUEEN_SIDE_CASTLE;
+                default -> throw new IllegalArgumentException(
+                        "Ending coordinate is not castling end coordinate");
+            };
+        } else if (isEnPassant(move)) {
+            return new EnPassantMove(moving, getCapturedPiece(move), start, end,
+                                     1L << getCaptureSquare(move));
+        } else if (isPromotion(move)) {
+            return new PromotionMove(moving, getPromotedPiece(move), start, end);
+        }
+        return new NormalMove(moving, start, end);
+    }
+
+    /**
+     * @return the starting square of the move.
+     */
+    public static int getFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @return the ending square of the move.
+     */
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the unique index of the moving piece.
+     */
+    public static int getMoving(int move) {
+        return (move >>> MOVING_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * @return the unique index of the captured piece, 0 if nothing is captured.
+     */
+    public static int getCaptured(int move) {
+        return (move >>> CAPTURED_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * @return the unique index of the promoted piece, 0 if this is not a promotion.
+     */
+    public static int getPromoted(int move) {
+        return (move >>> PROMOTED_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * @return NORMAL, EN_PASSANT or CASTLING.
+     */
+    public static int getFlag(int move) {
+        return (move >>> FLAG_SHIFT) & FLAG_MASK;
+    }
+
+    /**
+     * @return the lowest 16 bits of the move, which identify it in its position.
+     */
+    public static int getKey(int move) {
+        return move & KEY_MASK;
+    }
+
+    public static Piece getMovingPiece(int move) {
+        return PIECES[getMoving(move)];
+    }
+
+    /**
+     * @return the captured piece, or null if nothing is captured.
+     */
+    public static Piece getCapturedPiece(int move) {
+        int captured = getCaptured(move);
+        return captured == 0 ? null : PIECES[captured];
+    }
+
+    /**
+     * @return the promoted piece, or null if this is not a promotion.
+     */
+    public static Piece getPromotedPiece(int move) {
+        int promoted = getPromoted(move);
+        return promoted == 0 ? null : PIECES[promoted];
+    }
+
+    /**
+     * @return the square of the captured piece, which differs from the
+     * ending square for en passant.
+     */
+    public static int getCaptureSquare(int move) {
+        if (isEnPassant(move)) {
+            return getMovingPiece(move).getColor() == WHITE ? getTo(move) - 8 : getTo(move) + 8;
+        }
+        return getTo(move);
+    }
+
+    public static boolean isCapture(int move) {
+        return getCaptured(move) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return getPromoted(move) != 0;
+    }
+
+    /**
+     * @return if the move captures a piece or promotes a pawn.
+     */
+    public static boolean isTactical(int move) {
+        return (move & (PIECE_MASK << CAPTURED_SHIFT | PIECE_MASK << PROMOTED_SHIFT)) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return getFlag(move) == EN_PASSANT;
+    }
+
+    public static boolean isCastling(int move) {
+        return getFlag(move) == CASTLING;
+    }
+
+    /**
+     * @return the move in the same format as the toString of the move objects.
+     */
+    public static String toString(int move) {
+        if (move == NO_MOVE) {
+            return "null";
+        }
+        return toMovable(move).toString();
+    }
+}
@@ -1,8 +1,6 @@
 package chess.model.moves;
 
 import chess.ChessCoordinate;
-import chess.model.BoardModel;
-import chess.model.Zobrist;
 import chess.model.pieces.Piece;
 
 import static chess.model.GameModel.WHITE;
@@ -29,46 +27,6 @@ public class NormalMove implements Movable {
         this.end = end;
     }
 
-    @Override
-    public BoardModel.BoardState nextState(BoardModel.BoardState state) {
-        long[] pieceMaps = state.pieceMaps().clone();
-        long occupied = state.occupied();
-        long white = state.white();
-        long black = state.black();
-        long moveMask = start | end;
-        boolean isWhite = moving.getColor() == WHITE;
-        Piece capturedPiece = state.getPieceOn(end);
-
-        long deltaHash = 0x0L;
-
-        if (capturedPiece != null) { // This move captures a piece
-
-            pieceMaps[capturedPiece.ordinal()] &= ~end;
-            deltaHash = Zobrist.flipPiece(capturedPiece, ChessCoordinate.getChessCoordinate(end),
-                                          deltaHash);
-
-            if (isWhite)
-                black ^= end;
-            else
-                white ^= end;
-
-            occupied ^= start;
-        } else {
-            occupied ^= moveMask;
-        }
-
-        if (isWhite)
-            white ^= moveMask;
-        else
-            black ^= moveMask;
-
-        pieceMaps[moving.ordinal()] ^= moveMask;
-        deltaHash = Zobrist.flipPiece(moving, ChessCoordinate.getChessCoordinate(start), deltaHash);
-        deltaHash = Zobrist.flipPiece(moving, ChessCoordinate.getChessCoordinate(end), deltaHash);
-
-        return new BoardModel.BoardState(pieceMaps, white, black, occupied, deltaHash);
-    }
-
     @Override
     public Piece getMovingPiece() {
         return moving;
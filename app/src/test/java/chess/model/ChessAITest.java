@@ -2,6 +2,7 @@ package chess.model;
 
 import chess.model.chessai.ChessAI;
 import chess.model.chessai.PositionEvaluator;
+import chess.model.chessai.SearchStats;
 import chess.model.moves.Movable;
 import chess.model.moves.NormalMove;
 import org.junit.Assert;
@@ -27,6 +28,29 @@ public class ChessAITest {
         System.out.printf("Total time: %dms", endTime - startTime);
     }
 
+    @Test
+    public void testSearchStatsPerIteration() {
+        GameModel testGame = new GameModel(
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        ChessAI testAI = new ChessAI(new PositionEvaluator(testGame), testGame, true, true);
+        List<SearchStats> iterations = new ArrayList<>();
+        testAI.setSearchListener(iterations::add);
+
+        Movable actualMove = testAI.getBestMove(4);
+
+        Assert.assertEquals(4, iterations.size());
+        for (int idx = 0; idx < iterations.size(); idx++) {
+            SearchStats stats = iterations.get(idx);
+            Assert.assertEquals(idx + 1, stats.getDepth());
+            Assert.assertTrue(stats.getNodes() > stats.getQuiescenceNodes());
+            Assert.assertTrue(stats.getSelDepth() >= stats.getDepth());
+        }
+        SearchStats last = iterations.get(iterations.size() - 1);
+        Assert.assertEquals(actualMove, last.getPrincipalVariation().get(0));
+        Assert.assertTrue(last.getTranspositionProbes() >= last.getTranspositionHits());
+        Assert.assertTrue(last.getEffectiveBranchingFactor() > 0);
+    }
+
     @Test
     public void testFindMateInOne1() {
         GameModel testGame = new GameModel(
@@ -86,6 +110,23 @@ public class ChessAITest {
         }
     }
 
+    @Test
+    public void testFindMateInTwoWithHelperThreads() {
+        GameModel testGame = new GameModel("5R2/8/8/8/1pN5/1pn5/k2K4/4R3 w - - 0 1");
+        ChessAI testAI = new ChessAI(new PositionEvaluator(testGame), testGame, true, true, 16, 4);
+
+        List<Movable> expectedMoves = new ArrayList<>();
+        expectedMoves.add(new NormalMove(WHITE_ROOK, F8.getBitMask(), A8.getBitMask()));
+        expectedMoves.add(new NormalMove(BLACK_KNIGHT, C3.getBitMask(), A4.getBitMask()));
+        expectedMoves.add(new NormalMove(WHITE_ROOK, A8.getBitMask(), A4.getBitMask()));
+
+        for (Movable expectedMove : expectedMoves) {
+            Movable actualMove = testAI.getBestMove(3, 200);
+            Assert.assertEquals("Mate in 3 was not found.", expectedMove, actualMove);
+            testGame.move(actualMove);
+        }
+    }
+
     @Test
     public void testFindMateInThree() {
         GameModel testGame = new GameModel("r5rk/5p1p/5R2/4B3/8/8/7P/7K w q - 0 1");
@@ -11,6 +11,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static chess.ChessCoordinate.*;
 import static chess.model.GameModel.IN_PROGRESS;
 import static java.util.concurrent.TimeUnit.*;
 
@@ -93,6 +94,80 @@ public class GameModelTest {
                                testGame2.getZobristWithTimesMoved());
     }
 
+    @Test
+    public void testNullMoveIsUndone() {
+        GameModel testGame = new GameModel(
+                "rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2");
+        GameModel passedGame = new GameModel(
+                "rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
+        long hash = testGame.getZobristHash();
+
+        testGame.makeNullMove();
+        Assert.assertEquals(GameModel.WHITE, testGame.getTurn());
+        Assert.assertEquals("A null move should only change the side to move.",
+                            passedGame.getZobristHash(), testGame.getZobristHash());
+        Assert.assertEquals(passedGame.getLegalMoves().size(), testGame.getLegalMoves().size());
+
+        testGame.undoLastMove();
+        Assert.assertEquals(GameModel.BLACK, testGame.getTurn());
+        Assert.assertEquals(hash, testGame.getZobristHash());
+    }
+
+    @Test
+    public void testGameOverBeforeMovesAreGenerated() {
+        GameModel mate = new GameModel("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1");
+        GameModel stalemate = new GameModel("7k/8/6Q1/8/8/8/8/6K1 b - - 0 1");
+
+        Assert.assertEquals(GameModel.LOSER, mate.getGameOverStatus());
+        Assert.assertEquals(GameModel.DRAW, stalemate.getGameOverStatus());
+        Assert.assertTrue(mate.getLegalMoves().isEmpty());
+        Assert.assertTrue(stalemate.getLegalMoves().isEmpty());
+    }
+
+    @Test
+    public void testThreefoldRepetition() {
+        GameModel testGame = new GameModel();
+        for (int repetition = 1; repetition <= 2; repetition++) {
+            testGame.move(G1, F3, null);
+            testGame.move(G8, F6, null);
+            testGame.move(F3, G1, null);
+            Assert.assertEquals(IN_PROGRESS, testGame.getGameOverStatus());
+            testGame.move(F6, G8, null);
+        }
+        Assert.assertEquals(GameModel.DRAW, testGame.getGameOverStatus());
+
+        testGame.undoLastMove();
+        Assert.assertEquals(IN_PROGRESS, testGame.getGameOverStatus());
+    }
+
+    private static void assertScoresMatch(GameModel game, int depth) {
+        BoardModel expected = new GameModel(game.getFEN()).getBoard();
+        Assert.assertEquals(game.getFEN(), expected.getMidgameScore(),
+                            game.getBoard().getMidgameScore());
+        Assert.assertEquals(game.getFEN(), expected.getEndgameScore(),
+                            game.getBoard().getEndgameScore());
+        Assert.assertEquals(game.getFEN(), expected.getPawnHashValue(),
+                            game.getBoard().getPawnHashValue());
+
+        if (depth > 0) {
+            MoveList moves = game.getLegalMoves();
+            for (int idx = 0; idx < moves.size(); idx++) {
+                game.move(moves.get(idx));
+                assertScoresMatch(game, depth - 1);
+                game.undoLastMove();
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalScoreAndPawnHashMatchPosition() {
+        assertScoresMatch(new GameModel(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -"), 2);
+        assertScoresMatch(new GameModel(
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"), 3);
+        assertScoresMatch(new GameModel("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -"), 3);
+    }
+
     @Test
     public void testMiddleWithFourCastle() {
         GameModel game = new GameModel(
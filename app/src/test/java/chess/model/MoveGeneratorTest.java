@@ -0,0 +1,85 @@
+package chess.model;
+
+import chess.model.moves.Move;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class MoveGeneratorTest {
+
+    private static final String[] POSITIONS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbqkb1r/pp1p1ppp/2p5/4P3/2B5/8/PPP1NnPP/RNBQK2R w KQkq - 0 6",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+            // The pawn that gives check may be taken en passant
+            "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1"};
+
+    private static Set<Integer> toSet(MoveList moves) {
+        Set<Integer> set = new HashSet<>();
+        for (int idx = 0; idx < moves.size(); idx++) {
+            Assert.assertTrue(Move.toString(moves.get(idx)), set.add(moves.get(idx)));
+        }
+        return set;
+    }
+
+    /**
+     * Checks that the captures and quiet moves of the current position
+     * split its legal moves, and that the evasions are the legal moves
+     * when in check.
+     */
+    private static void assertSplitsLegalMoves(GameModel game, MoveGenerator generator) {
+        Set<Integer> legal = toSet(generator.generateMoves());
+        Set<Integer> captures = toSet(generator.generateCaptures());
+        Set<Integer> quiets = toSet(generator.generateQuiets());
+
+        captures.forEach(move -> Assert.assertTrue(Move.isTactical(move)));
+        quiets.forEach(move -> Assert.assertFalse(Move.isTactical(move)));
+        Set<Integer> all = new HashSet<>(captures);
+        all.addAll(quiets);
+        Assert.assertEquals(game.getFEN(), legal.size(), captures.size() + quiets.size());
+        Assert.assertEquals(game.getFEN(), legal, all);
+
+        if (game.isInCheck()) {
+            Assert.assertEquals(game.getFEN(), legal, toSet(generator.generateEvasions()));
+        }
+    }
+
+    private static void assertSplitsLegalMoves(GameModel game, MoveGenerator generator,
+                                               int depth) {
+        assertSplitsLegalMoves(game, generator);
+        if (depth > 0) {
+            MoveList moves = new MoveList(game.getLegalMoves());
+            for (int idx = 0; idx < moves.size(); idx++) {
+                game.move(moves.get(idx));
+                assertSplitsLegalMoves(game, generator, depth - 1);
+                game.undoLastMove();
+            }
+        }
+    }
+
+    @Test
+    public void testCapturesAndQuietsSplitLegalMoves() {
+        for (String fen : POSITIONS) {
+            GameModel game = new GameModel(fen);
+            assertSplitsLegalMoves(game, new MoveGenerator(game), 2);
+        }
+    }
+
+    @Test
+    public void testEvasionsOfCheck() {
+        // The black king is in check from the queen on e6, and may not castle
+        GameModel game = new GameModel(
+                "r3k2r/p1pp1pb1/bn2Qnp1/2qPN3/1p2P3/2N5/PPPBBPPP/R3K2R b KQkq - 3 2");
+        MoveGenerator generator = new MoveGenerator(game);
+        MoveList evasions = generator.generateEvasions();
+
+        Assert.assertTrue(game.isInCheck());
+        Assert.assertEquals(toSet(generator.generateMoves()), toSet(evasions));
+        for (int idx = 0; idx < evasions.size(); idx++) {
+            Assert.assertFalse(Move.isCastling(evasions.get(idx)));
+        }
+    }
+}
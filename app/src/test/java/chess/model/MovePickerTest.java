@@ -0,0 +1,77 @@
+package chess.model;
+
+import chess.model.chessai.MoveOrderer;
+import chess.model.chessai.MovePicker;
+import chess.model.moves.Move;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static chess.ChessCoordinate.*;
+import static chess.model.pieces.Piece.*;
+
+public class MovePickerTest {
+
+    private static final String[] POSITIONS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbqkb1r/pp1p1ppp/2p5/4P3/2B5/8/PPP1NnPP/RNBQK2R w KQkq - 0 6",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+            "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+            "r3k2r/p1pp1pb1/bn2Qnp1/2qPN3/1p2P3/2N5/PPPBBPPP/R3K2R b KQkq - 3 2"};
+
+    /**
+     * Picks every move of the current position, and checks that every
+     * legal move is picked once, with the given move first.
+     */
+    private static void assertPicksLegalMoves(GameModel game, MoveOrderer moveOrderer,
+                                              int hashMove) {
+        MovePicker movePicker = new MovePicker(game, moveOrderer);
+        movePicker.reset(Move.getKey(hashMove), 1, game.isInCheck());
+
+        Set<Integer> legalMoves = new HashSet<>();
+        MoveList moves = game.getLegalMoves();
+        for (int idx = 0; idx < moves.size(); idx++) {
+            legalMoves.add(moves.get(idx));
+        }
+
+        Set<Integer> picked = new HashSet<>();
+        for (int move; (move = movePicker.next()) != Move.NO_MOVE; ) {
+            if (picked.isEmpty() && hashMove != Move.NO_MOVE) {
+                Assert.assertEquals(Move.toString(hashMove), Move.toString(move));
+            }
+            Assert.assertTrue(game.getFEN() + " " + Move.toString(move), picked.add(move));
+        }
+        Assert.assertEquals(game.getFEN(), legalMoves, picked);
+    }
+
+    @Test
+    public void testPicksEveryLegalMoveOnce() {
+        for (String fen : POSITIONS) {
+            GameModel game = new GameModel(fen);
+            MoveOrderer moveOrderer = new MoveOrderer(4);
+            MoveList moves = new MoveList(game.getLegalMoves());
+
+            assertPicksLegalMoves(game, moveOrderer, Move.NO_MOVE);
+            for (int idx = 0; idx < moves.size(); idx++) {
+                // Every move in turn is the hash move, and the killer of the next ply
+                assertPicksLegalMoves(game, moveOrderer, moves.get(idx));
+                moveOrderer.recordCutoff(game, moves.get(idx), 2, 1);
+            }
+        }
+    }
+
+    @Test
+    public void testIllegalHashMoveIsSkipped() {
+        GameModel game = new GameModel(POSITIONS[0]);
+        // The black pawn on a7 may not move while white is to move
+        int illegal = Move.create(A7.getOndDimIndex(), A6.getOndDimIndex(),
+                                  BLACK_PAWN.getUniqueIdx(), 0, 0, Move.NORMAL);
+
+        MovePicker movePicker = new MovePicker(game, new MoveOrderer(4));
+        movePicker.reset(Move.getKey(illegal), 1, false);
+        Assert.assertNotEquals(Move.getKey(illegal), Move.getKey(movePicker.next()));
+    }
+}
@@ -0,0 +1,142 @@
+package chess.model;
+
+import chess.model.chessai.NnueEvaluator;
+import chess.model.chessai.NnueNetwork;
+import chess.model.features.BoardRepFeature;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class NnueEvaluatorTest {
+
+    private static final int HIDDEN_SIZE = 16;
+    private static final int ACTIVATION_MAX = 255;
+    private static final int OUTPUT_DIVISOR = 64;
+
+    private static short[] randomShorts(Random random, int length, int bound) {
+        short[] values = new short[length];
+        for (int idx = 0; idx < length; idx++) {
+            values[idx] = (short) (random.nextInt(2 * bound + 1) - bound);
+        }
+        return values;
+    }
+
+    private static NnueNetwork createNetwork(Random random) {
+        return new NnueNetwork(HIDDEN_SIZE, ACTIVATION_MAX, OUTPUT_DIVISOR,
+                               randomShorts(random, NnueNetwork.INPUT_SIZE * HIDDEN_SIZE, 40),
+                               randomShorts(random, HIDDEN_SIZE, 100),
+                               randomShorts(random, HIDDEN_SIZE, 60), 1234);
+    }
+
+    /**
+     * Computes the network from the features of BoardRepFeature, without
+     * any accumulator.
+     */
+    private static int referenceScore(NnueNetwork network, short[] weights, short[] biases,
+                                      short[] outputWeights, GameModel game) {
+        int[] inputs = Arrays.stream(new BoardRepFeature().featureString(game).split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Assert.assertEquals(NnueNetwork.INPUT_SIZE, inputs.length);
+
+        int output = network.getOutputBias();
+        for (int neuron = 0; neuron < HIDDEN_SIZE; neuron++) {
+            int value = biases[neuron];
+            for (int input = 0; input < inputs.length; input++) {
+                value += inputs[input] * weights[input * HIDDEN_SIZE + neuron];
+            }
+            output += Math.max(0, Math.min(ACTIVATION_MAX, value)) * outputWeights[neuron];
+        }
+        return output / OUTPUT_DIVISOR;
+    }
+
+    @Test
+    public void testIncrementalScoreMatchesFeatures() {
+        Random random = new Random(7);
+        short[] weights = randomShorts(random, NnueNetwork.INPUT_SIZE * HIDDEN_SIZE, 40);
+        short[] biases = randomShorts(random, HIDDEN_SIZE, 100);
+        short[] outputWeights = randomShorts(random, HIDDEN_SIZE, 60);
+        NnueNetwork network = new NnueNetwork(HIDDEN_SIZE, ACTIVATION_MAX, OUTPUT_DIVISOR,
+                                              weights, biases, outputWeights, -321);
+
+        for (String fen : new String[]{
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -"}) {
+            GameModel game = new GameModel(fen);
+            NnueEvaluator evaluator = new NnueEvaluator(game, network);
+            assertScoresMatch(evaluator, network, weights, biases, outputWeights, game, 2);
+        }
+    }
+
+    private static void assertScoresMatch(NnueEvaluator evaluator, NnueNetwork network,
+                                          short[] weights, short[] biases,
+                                          short[] outputWeights, GameModel game, int depth) {
+        Assert.assertEquals(game.getFEN(),
+                            referenceScore(network, weights, biases, outputWeights, game),
+                            evaluator.evaluateScore(game));
+
+        if (depth > 0) {
+            MoveList moves = game.getLegalMoves();
+            for (int idx = 0; idx < moves.size(); idx++) {
+                game.move(moves.get(idx));
+                assertScoresMatch(evaluator, network, weights, biases, outputWeights, game,
+                                  depth - 1);
+                game.undoLastMove();
+            }
+        }
+    }
+
+    @Test
+    public void testWeightsFileRoundTrip() throws IOException {
+        NnueNetwork network = createNetwork(new Random(11));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        network.write(out);
+        NnueNetwork loaded = NnueNetwork.read(new ByteArrayInputStream(out.toByteArray()));
+
+        GameModel game = new GameModel(
+                "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        Assert.assertEquals(new NnueEvaluator(game, network).evaluateScore(game),
+                            new NnueEvaluator(game, loaded).evaluateScore(game));
+    }
+
+    @Test
+    public void testVectorScoresMatchScalar() {
+        Assume.assumeTrue(NnueEvaluator.isVectorApiAvailable());
+
+        // A hidden size that is no multiple of the vector length, so the tails are used
+        int hiddenSize = 45;
+        Random random = new Random(3);
+        NnueNetwork network = new NnueNetwork(hiddenSize, ACTIVATION_MAX, OUTPUT_DIVISOR,
+                                              randomShorts(random,
+                                                           NnueNetwork.INPUT_SIZE * hiddenSize,
+                                                           80),
+                                              randomShorts(random, hiddenSize, 200),
+                                              randomShorts(random, hiddenSize, 60), 77);
+
+        GameModel game = new GameModel(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+        NnueEvaluator scalar = new NnueEvaluator(game, network, false);
+        NnueEvaluator vector = new NnueEvaluator(game, network, true);
+        Assert.assertTrue(vector.usesVectorApi());
+        Assert.assertFalse(scalar.usesVectorApi());
+
+        MoveList moves = game.getLegalMoves();
+        for (int idx = 0; idx < moves.size(); idx++) {
+            game.move(moves.get(idx));
+            Assert.assertEquals(game.getFEN(), scalar.evaluateScore(game),
+                                vector.evaluateScore(game));
+            game.undoLastMove();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        NnueNetwork.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,49 @@
+package chess.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class PerftTest {
+
+    private static final String KIWIPETE =
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -";
+
+    @Test
+    public void testStartingPosition() {
+        Perft perft = new Perft(4, 0);
+        Assert.assertEquals(1, perft.count(new GameModel(), 0));
+        Assert.assertEquals(20, perft.count(new GameModel(), 1));
+        Assert.assertEquals(197_281, perft.count(new GameModel(), 4));
+        perft.shutdown();
+    }
+
+    @Test
+    public void testHashAndThreadsGiveSameCount() {
+        GameModel game = new GameModel(KIWIPETE);
+        String fen = game.getFEN();
+        Perft single = new Perft(1, 0);
+        Perft hashed = new Perft(4, 16);
+
+        Assert.assertEquals(97_862, single.count(game, 3));
+        Assert.assertEquals(4_085_603, hashed.count(game, 4));
+        Assert.assertEquals(4_085_603, hashed.count(game, 4));
+        Assert.assertEquals("Counting should not change the game.", fen, game.getFEN());
+        single.shutdown();
+        hashed.shutdown();
+    }
+
+    @Test
+    public void testDivideSumsToCount() {
+        GameModel game = new GameModel(
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        Perft perft = new Perft(2, 0);
+        Map<String, Long> divide = perft.divide(game, 3);
+
+        Assert.assertEquals(6, divide.size());
+        Assert.assertEquals(9_467, divide.values().stream().mapToLong(Long::longValue).sum());
+        Assert.assertTrue(divide.containsKey("g1h1"));
+        perft.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package chess.model;
+
+import chess.model.chessai.BitboardEvaluator;
+import chess.model.chessai.CachedEvaluator;
+import chess.model.chessai.Evaluator;
+import chess.model.chessai.PositionEvaluator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PositionEvaluatorTest {
+
+    @Test
+    public void testMirroredPositionIsNegated() {
+        assertMirroredPositionIsNegated(new PositionEvaluator(new GameModel()));
+        assertMirroredPositionIsNegated(new BitboardEvaluator(new GameModel()));
+    }
+
+    private static void assertMirroredPositionIsNegated(Evaluator evaluator) {
+        GameModel game = new GameModel("r4rk1/1p3ppp/p1np4/4p1B1/2P5/P1N5/1P3PPP/R4RK1 w - - 0 1");
+        GameModel mirrored = new GameModel(
+                "r4rk1/1p3ppp/p1n5/2p5/4P1b1/P1NP4/1P3PPP/R4RK1 b - - 0 1");
+
+        Assert.assertEquals(evaluator.evaluateScore(game), -evaluator.evaluateScore(mirrored));
+        Assert.assertEquals("Pawn table entries should give the same score.",
+                            evaluator.evaluateScore(game), evaluator.evaluateScore(game));
+    }
+
+    @Test
+    public void testPawnStructure() {
+        PositionEvaluator evaluator = new PositionEvaluator(new GameModel());
+        GameModel passed = new GameModel("6k1/8/8/3P4/8/8/8/6K1 w - - 0 1");
+        GameModel blocked = new GameModel("6k1/3p4/8/3P4/8/8/8/6K1 w - - 0 1");
+        GameModel healthy = new GameModel("6k1/8/8/8/8/8/3PP3/6K1 w - - 0 1");
+        GameModel doubled = new GameModel("6k1/8/8/8/8/3P4/3P4/6K1 w - - 0 1");
+
+        Assert.assertTrue("A passed pawn should be worth more than a blocked one.",
+                          evaluator.evaluateScore(passed) >
+                                  evaluator.evaluateScore(blocked) + 100);
+        Assert.assertTrue("Doubled pawns should be worse than connected ones.",
+                          evaluator.evaluateScore(healthy) > evaluator.evaluateScore(doubled));
+    }
+
+    @Test
+    public void testCachedScoresMatch() {
+        GameModel game = new GameModel(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+        PositionEvaluator evaluator = new PositionEvaluator(game);
+        CachedEvaluator cached = new CachedEvaluator(evaluator, 1);
+
+        for (int pass = 0; pass < 2; pass++) {
+            MoveList moves = game.getLegalMoves();
+            for (int idx = 0; idx < moves.size(); idx++) {
+                game.move(moves.get(idx));
+                Assert.assertEquals(evaluator.evaluateScore(game), cached.evaluateScore(game));
+                game.undoLastMove();
+            }
+        }
+    }
+
+    @Test
+    public void testBitboardEvaluatorRewardsActivePieces() {
+        BitboardEvaluator evaluator = new BitboardEvaluator(new GameModel());
+        GameModel openRook = new GameModel("6k1/pp3ppp/8/8/8/8/PP3PPP/3R2K1 w - - 0 1");
+        GameModel closedRook = new GameModel("6k1/pp3ppp/8/8/8/8/PP3PPP/R5K1 w - - 0 1");
+
+        Assert.assertTrue("A rook on an open file should be worth more.",
+                          evaluator.evaluateScore(openRook) >
+                                  evaluator.evaluateScore(closedRook));
+    }
+}
@@ -0,0 +1,29 @@
+package chess.model;
+
+import chess.model.chessai.StaticExchange;
+import chess.model.moves.NormalMove;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static chess.ChessCoordinate.*;
+import static chess.model.pieces.Piece.*;
+
+public class StaticExchangeTest {
+
+    @Test
+    public void testUndefendedPawn() {
+        GameModel testGame = new GameModel("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+
+        Assert.assertEquals(100, StaticExchange.evaluate(testGame.getBoard(),
+                new NormalMove(WHITE_ROOK, E1.getBitMask(), E5.getBitMask())));
+    }
+
+    @Test
+    public void testDefendedPawnWithXRays() {
+        GameModel testGame = new GameModel(
+                "1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+
+        Assert.assertEquals(-200, StaticExchange.evaluate(testGame.getBoard(),
+                new NormalMove(WHITE_KNIGHT, D3.getBitMask(), E5.getBitMask())));
+    }
+}
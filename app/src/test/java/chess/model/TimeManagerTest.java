@@ -0,0 +1,39 @@
+package chess.model;
+
+import chess.model.chessai.TimeManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeManagerTest {
+
+    @Test
+    public void testMoveTime() {
+        TimeManager timeManager = TimeManager.forMoveTime(1_000);
+
+        Assert.assertEquals(500, timeManager.getSoftLimit());
+        Assert.assertEquals(1_000, timeManager.getHardLimit());
+    }
+
+    @Test
+    public void testTimeControlStaysWithinClock() {
+        TimeManager suddenDeath = TimeManager.forTimeControl(60_000, 0, 0);
+        TimeManager withIncrement = TimeManager.forTimeControl(60_000, 2_000, 0);
+        TimeManager lastMove = TimeManager.forTimeControl(1_000, 0, 1);
+
+        Assert.assertTrue(suddenDeath.getSoftLimit() < suddenDeath.getHardLimit());
+        Assert.assertTrue("The increment should give more time.",
+                          withIncrement.getSoftLimit() > suddenDeath.getSoftLimit());
+        Assert.assertTrue("The hard limit must leave time on the clock.",
+                          lastMove.getHardLimit() < 1_000);
+        Assert.assertTrue(lastMove.getSoftLimit() <= lastMove.getHardLimit());
+    }
+
+    @Test
+    public void testUnlimitedNeverStops() {
+        TimeManager timeManager = TimeManager.unlimited();
+        timeManager.start();
+
+        Assert.assertFalse(timeManager.isSoftLimitReached());
+        Assert.assertFalse(timeManager.isHardLimitReached());
+    }
+}
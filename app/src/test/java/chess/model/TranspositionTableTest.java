@@ -0,0 +1,86 @@
+package chess.model;
+
+import chess.model.chessai.Evaluation;
+import chess.model.chessai.TranspositionTable;
+import chess.model.moves.Movable;
+import chess.model.moves.NormalMove;
+import chess.model.moves.PromotionMove;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static chess.ChessCoordinate.*;
+import static chess.model.chessai.TranspositionTable.NO_ENTRY;
+import static chess.model.pieces.Piece.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        Movable move = new PromotionMove(WHITE_PAWN, WHITE_KNIGHT, B7.getBitMask(),
+                                         A8.getBitMask());
+        long hash = 0x1234_5678_9ABC_DEF0L;
+
+        table.store(hash, -1234, 7, Evaluation.LOWER, move);
+        long entry = table.probe(hash);
+
+        Assert.assertNotEquals("Stored entry was not found.", NO_ENTRY, entry);
+        Assert.assertEquals(-1234, TranspositionTable.getScore(entry));
+        Assert.assertEquals(7, TranspositionTable.getDepth(entry));
+        Assert.assertEquals(Evaluation.LOWER, TranspositionTable.getBound(entry));
+        Assert.assertEquals(TranspositionTable.packMove(move), TranspositionTable.getMove(entry));
+    }
+
+    @Test
+    public void testDifferentKeyInSameSlotIsRejected() {
+        TranspositionTable table = new TranspositionTable(1);
+        long hash = 0x0000_0000_0000_0042L;
+        long otherHash = 0x7000_0000_0000_0042L;
+
+        table.store(hash, 10, 3, Evaluation.EXACT, null);
+
+        Assert.assertEquals("Entry of another position was returned.", NO_ENTRY,
+                            table.probe(otherHash));
+    }
+
+    @Test
+    public void testShallowerSearchDoesNotReplace() {
+        TranspositionTable table = new TranspositionTable(1);
+        Movable move = new NormalMove(WHITE_KNIGHT, G1.getBitMask(), F3.getBitMask());
+        long hash = 0x0F0F_0F0F_0F0F_0F0FL;
+
+        table.store(hash, 50, 6, Evaluation.EXACT, move);
+        table.store(hash, -50, 2, Evaluation.UPPER, null);
+
+        long entry = table.probe(hash);
+        Assert.assertEquals(50, TranspositionTable.getScore(entry));
+        Assert.assertEquals(6, TranspositionTable.getDepth(entry));
+    }
+
+    @Test
+    public void testExactScoreReplacesBoundOfSameDepth() {
+        TranspositionTable table = new TranspositionTable(1);
+        long hash = 0x0F0F_0F0F_0F0F_0F0FL;
+
+        table.store(hash, 20, 5, Evaluation.LOWER, null);
+        table.store(hash, 35, 5, Evaluation.EXACT, null);
+
+        long entry = table.probe(hash);
+        Assert.assertEquals(35, TranspositionTable.getScore(entry));
+        Assert.assertEquals(Evaluation.EXACT, TranspositionTable.getBound(entry));
+    }
+
+    @Test
+    public void testNewSearchReplacesDeeperEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        long hash = 0x0F0F_0F0F_0F0F_0F0FL;
+
+        table.store(hash, 50, 6, Evaluation.EXACT, null);
+        table.newSearch();
+        table.store(hash, -50, 2, Evaluation.UPPER, null);
+
+        long entry = table.probe(hash);
+        Assert.assertEquals(-50, TranspositionTable.getScore(entry));
+        Assert.assertEquals(2, TranspositionTable.getDepth(entry));
+    }
+}